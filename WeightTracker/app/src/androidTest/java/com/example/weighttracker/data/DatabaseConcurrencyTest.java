@@ -0,0 +1,182 @@
+package com.example.weighttracker.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// Stress test: read latency while a large batch write is in flight.
+// With WAL the reader keeps seeing the last committed state and should never
+// stall for the length of the write transaction.
+@RunWith(AndroidJUnit4.class)
+public class DatabaseConcurrencyTest {
+    private static final String TAG = "DatabaseConcurrencyTest";
+    private static final String DB_NAME = "concurrency_test.db";
+    private static final int BATCH_SIZE = 20_000;
+    private static final int IMPORT_ROWS = 5_000;
+    private static final int SINGLE_ADDS = 500;
+    private static final int QUEUED_WRITES = 2_000;
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private DatabaseHelper dbHelper;
+
+    @After
+    public void tearDown() {
+        if (dbHelper != null) dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void wal_readsDoNotWaitForBatchWrite() throws Exception {
+        ReadStats stats = measureReadsDuringWrite(true);
+        Log.i(TAG, "WAL: " + stats);
+
+        assertTrue("no reads completed during the write", stats.reads > 0);
+        assertTrue("a read waited for the write: " + stats, stats.maxMillis < stats.writeMillis / 2);
+    }
+
+    @Test
+    public void rollbackJournal_baseline() throws Exception {
+        // Reference numbers only: without WAL the reader shares the single connection
+        ReadStats stats = measureReadsDuringWrite(false);
+        Log.i(TAG, "Rollback journal: " + stats);
+    }
+
+    // An import commits chunks on one thread while the write queue flushes batches on
+    // another and single adds run on a third. Every write path locks its statements
+    // before taking the connection, so none of them can wait on another for good.
+    @Test
+    public void importWhileWriteQueueFlushes_completes() throws Exception {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, true);
+        assertTrue(dbHelper.addUser("stress_user", "password#1"));
+        long userId = dbHelper.getUserId("stress_user");
+        int yesterday = IsoDate.todayUtc() - 1;
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            WeightWriteQueue queue = new WeightWriteQueue(writes -> {
+                boolean[] applied = new boolean[writes.size()];
+                dbHelper.applyWeightBatch(writes, applied);
+                return applied;
+            }, flusher, 1, 8);
+
+            StringBuilder csv = new StringBuilder("date,weight\n");
+            for (int i = 0; i < IMPORT_ROWS; i++) {
+                csv.append(IsoDate.format(yesterday - i % 3650)).append(",150\n");
+            }
+            Future<WeightImporter.ImportStats> imported = writers.submit(() ->
+                    new WeightImporter(dbHelper, userId, 50, null).importCsv(new StringReader(csv.toString())));
+            Future<Integer> added = writers.submit(() -> {
+                int count = 0;
+                for (int i = 0; i < SINGLE_ADDS; i++) {
+                    if (dbHelper.addWeight(userId, IsoDate.format(yesterday - i), 160.0, null)) count++;
+                }
+                return count;
+            });
+            List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+            for (int i = 0; i < QUEUED_WRITES; i++) {
+                queued.add(queue.insert(new WeightEntry(userId, IsoDate.format(yesterday - i), 170.0, null)));
+            }
+
+            assertEquals(IMPORT_ROWS, imported.get(30, TimeUnit.SECONDS).getRowsImported());
+            assertEquals(SINGLE_ADDS, (int) added.get(30, TimeUnit.SECONDS));
+            for (CompletableFuture<Boolean> write : queued) {
+                assertTrue(write.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            flusher.shutdownNow();
+            writers.shutdownNow();
+        }
+
+        try (Cursor cursor = dbHelper.getWeightsByUser(userId)) {
+            assertEquals(IMPORT_ROWS + SINGLE_ADDS + QUEUED_WRITES, cursor.getCount());
+        }
+    }
+
+    private ReadStats measureReadsDuringWrite(boolean wal) throws Exception {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, wal);
+        assertTrue(dbHelper.addUser("stress_user", "password#1"));
+        long userId = dbHelper.getUserId("stress_user");
+
+        // Something to read before the batch commits
+        assertTrue(dbHelper.addWeightEntries(entries(userId, 200)));
+        List<WeightEntry> batch = entries(userId, BATCH_SIZE);
+
+        long writeStart = System.nanoTime();
+        Future<Boolean> write = AppExecutors.databaseWrite().submit(() -> dbHelper.addWeightEntries(batch));
+
+        List<Long> latencies = new ArrayList<>();
+        while (!write.isDone()) {
+            long start = System.nanoTime();
+            try (Cursor cursor = dbHelper.getWeightsPage(userId, IsoDate.INVALID, -1, 50)) {
+                while (cursor.moveToNext()) {
+                    cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_WEIGHT));
+                }
+            }
+            latencies.add(System.nanoTime() - start);
+        }
+        assertTrue(write.get(30, TimeUnit.SECONDS));
+        long writeNanos = System.nanoTime() - writeStart;
+
+        return new ReadStats(latencies, writeNanos);
+    }
+
+    private static List<WeightEntry> entries(long userId, int count) {
+        int today = IsoDate.todayUtc();
+        List<WeightEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new WeightEntry(userId, IsoDate.format(today - i % 3650), 150 + i % 40, null));
+        }
+        return entries;
+    }
+
+    private static class ReadStats {
+        final int reads;
+        final double medianMillis;
+        final double p99Millis;
+        final double maxMillis;
+        final double writeMillis;
+
+        ReadStats(List<Long> latencies, long writeNanos) {
+            long[] sorted = new long[latencies.size()];
+            for (int i = 0; i < sorted.length; i++) sorted[i] = latencies.get(i);
+            Arrays.sort(sorted);
+            reads = sorted.length;
+            medianMillis = reads > 0 ? sorted[reads / 2] / 1e6 : 0;
+            p99Millis = reads > 0 ? sorted[Math.min(reads - 1, (int) (reads * 0.99))] / 1e6 : 0;
+            maxMillis = reads > 0 ? sorted[reads - 1] / 1e6 : 0;
+            writeMillis = writeNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return reads + " reads, median " + medianMillis + " ms, p99 " + p99Millis + " ms, max "
+                    + maxMillis + " ms during a " + writeMillis + " ms write";
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.weighttracker.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.model.PeriodStats;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+// Opens a database written by schema v3 (no 'day' column) with the current helper and
+// checks the background backfills give every row the epoch day of its ISO date and
+// every user their weekly and monthly rollups, and that 'day' is constrained afterwards
+@RunWith(AndroidJUnit4.class)
+public class DatabaseUpgradeTest {
+    private static final String DB_NAME = "upgrade_test.db";
+    private static final int ROWS = 1_234; // more than two migration chunks
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context.deleteDatabase(DB_NAME);
+        createVersion3Database();
+    }
+
+    @After
+    public void tearDown() {
+        if (dbHelper != null) dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void upgradeFromV3_backfillsEpochDays() throws Exception {
+        dbHelper = new DatabaseHelper(context, DB_NAME, true);
+        SQLiteDatabase db = dbHelper.getWritableDatabase(); // runs onUpgrade, then starts the backfills
+        long userId = dbHelper.getUserId("upgrade_user");
+        assertEquals(ROWS, countInRollups(userId, PeriodStats.Period.MONTH)); // before or after the backfill
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!dbHelper.isDayColumnReady() || !dbHelper.areRollupsReady()) {
+            assertTrue("backfill did not finish", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+
+        try (Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_DATE + ", " + DatabaseHelper.COLUMN_DAY
+                + " FROM weights", null)) {
+            assertEquals(ROWS, cursor.getCount());
+            while (cursor.moveToNext()) {
+                assertFalse(cursor.isNull(1));
+                assertEquals(cursor.getString(0), IsoDate.toEpochDay(cursor.getString(0)), cursor.getInt(1));
+            }
+        }
+        assertFalse(indexExists(db, "idx_weights_day_pending"));
+        assertFalse(indexExists(db, "idx_user_weights_date"));
+        assertTrue(indexExists(db, "idx_user_weights_day"));
+
+        assertEquals(ROWS, countInRollups(userId, PeriodStats.Period.WEEK));
+        assertEquals(ROWS, countInRollups(userId, PeriodStats.Period.MONTH));
+
+        // The rebuilt table enforces 'day', and its rollup triggers were recreated with it
+        try (Cursor cursor = db.rawQuery("PRAGMA table_info(weights)", null)) {
+            while (cursor.moveToNext()) {
+                if (DatabaseHelper.COLUMN_DAY.equals(cursor.getString(cursor.getColumnIndexOrThrow("name")))) {
+                    assertEquals(1, cursor.getInt(cursor.getColumnIndexOrThrow("notnull")));
+                }
+            }
+        }
+        try {
+            db.execSQL("INSERT INTO weights(user_id, date, day, weight) VALUES (?, '2020-01-01', 5, 150)",
+                    new Object[]{userId});
+            fail("a day that disagrees with the date was stored");
+        } catch (SQLiteConstraintException expected) {
+            // the CHECK ties day to date
+        }
+        assertTrue(dbHelper.addWeight(userId, "2019-12-31", 150.0, null));
+        assertEquals(ROWS + 1, countInRollups(userId, PeriodStats.Period.MONTH));
+
+        // The upgraded rows read back newest first through the day index
+        try (Cursor cursor = dbHelper.getWeightsPage(userId, IsoDate.INVALID, -1, 2)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(IsoDate.format(IsoDate.toEpochDay("2020-01-01") + ROWS - 1),
+                    cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE)));
+        }
+    }
+
+    // The v3 schema as it shipped, filled with one user's history
+    private void createVersion3Database() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DB_NAME), null);
+        try {
+            db.execSQL("CREATE TABLE users(" +
+                    "user_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "username TEXT UNIQUE NOT NULL CHECK(length(username) >= 4)," +
+                    "password TEXT NOT NULL CHECK(length(password) >= 8)," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            db.execSQL("CREATE TABLE weights(" +
+                    "weight_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "date TEXT NOT NULL CHECK(date <= date('now'))," +
+                    "weight REAL NOT NULL CHECK(weight >= 20 AND weight <= 300)," +
+                    "goal REAL CHECK(goal IS NULL OR (goal >= 20 AND goal <= 300))," +
+                    "user_id INTEGER NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "FOREIGN KEY(user_id) REFERENCES users(user_id) ON DELETE CASCADE)");
+            db.execSQL("CREATE INDEX idx_user_weights_date ON weights(user_id, date DESC)");
+
+            ContentValues user = new ContentValues();
+            user.put("username", "upgrade_user");
+            user.put("password", "not-a-real-hash");
+            long userId = db.insertOrThrow("users", null, user);
+
+            int first = IsoDate.toEpochDay("2020-01-01");
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < ROWS; i++) {
+                    ContentValues row = new ContentValues();
+                    row.put("date", IsoDate.format(first + i));
+                    row.put("weight", 150 + i % 40);
+                    row.put("user_id", userId);
+                    db.insertOrThrow("weights", null, row);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            db.setVersion(3);
+        } finally {
+            db.close();
+        }
+    }
+
+    private int countInRollups(long userId, PeriodStats.Period period) {
+        int count = 0;
+        try (Cursor cursor = dbHelper.getRollups(userId, period, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            while (cursor.moveToNext()) count += cursor.getInt(1);
+        }
+        return count;
+    }
+
+    private static boolean indexExists(SQLiteDatabase db, String name) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new String[]{name})) {
+            return cursor.moveToFirst();
+        }
+    }
+}
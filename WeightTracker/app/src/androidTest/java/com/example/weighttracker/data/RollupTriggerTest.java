@@ -0,0 +1,112 @@
+package com.example.weighttracker.data;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.model.PeriodStats;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class RollupTriggerTest {
+    private static final String DB_NAME = "rollup_test.db";
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private DatabaseHelper dbHelper;
+    private long userId;
+
+    @Before
+    public void setUp() {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, true);
+        assertTrue(dbHelper.addUser("rollup_user", "password#1"));
+        userId = dbHelper.getUserId("rollup_user");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void insertAndDelete_keepWeeklyRollupCurrent() {
+        // 2024-03-04 is a Monday; the 10th closes the same ISO week
+        long monday = dbHelper.addWeightAndGetId(userId, "2024-03-04", 180.0, null);
+        dbHelper.addWeightAndGetId(userId, "2024-03-06", 178.0, null);
+        long sunday = dbHelper.addWeightAndGetId(userId, "2024-03-10", 176.0, null);
+        dbHelper.addWeightAndGetId(userId, "2024-03-11", 175.0, null); // next week
+
+        int week = IsoDate.toEpochDay("2024-03-04");
+        try (Cursor cursor = dbHelper.getRollups(userId, PeriodStats.Period.WEEK, week, week + 14)) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(week, cursor.getInt(0));
+            assertEquals(3, cursor.getLong(1));
+            assertEquals(534.0, cursor.getDouble(2), 1e-9);
+            assertEquals(176.0, cursor.getDouble(4), 0);
+            assertEquals(180.0, cursor.getDouble(5), 0);
+        }
+
+        // Removing the extremes rescans min/max for that week only
+        assertTrue(dbHelper.deleteWeight(monday));
+        assertTrue(dbHelper.deleteWeight(sunday));
+        try (Cursor cursor = dbHelper.getRollups(userId, PeriodStats.Period.WEEK, week, week + 7)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getLong(1));
+            assertEquals(178.0, cursor.getDouble(4), 0);
+            assertEquals(178.0, cursor.getDouble(5), 0);
+        }
+
+        try (Cursor cursor = dbHelper.getRollups(userId, PeriodStats.Period.MONTH,
+                IsoDate.toEpochDay("2024-03-01"), IsoDate.toEpochDay("2024-04-01"))) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getLong(1));
+        }
+    }
+
+    @Test
+    public void deletingTheCurrentMinOrMax_rescansTheRemainingRows() {
+        // Four readings in the ISO week of 2024-03-04, one in the next week
+        long max = dbHelper.addWeightAndGetId(userId, "2024-03-04", 180.0, null);
+        dbHelper.addWeightAndGetId(userId, "2024-03-06", 178.0, null);
+        dbHelper.addWeightAndGetId(userId, "2024-03-08", 179.0, null);
+        long min = dbHelper.addWeightAndGetId(userId, "2024-03-10", 176.0, null);
+        dbHelper.addWeightAndGetId(userId, "2024-03-11", 170.0, null);
+
+        int week = IsoDate.toEpochDay("2024-03-04");
+        assertTrue(dbHelper.deleteWeight(max));
+        assertWeek(week, 3, 176.0, 179.0);
+
+        assertTrue(dbHelper.deleteWeight(min));
+        assertWeek(week, 2, 178.0, 179.0);
+
+        // The next week's row is outside the rescanned range
+        assertWeek(week + 7, 1, 170.0, 170.0);
+        try (Cursor cursor = dbHelper.getRollups(userId, PeriodStats.Period.MONTH,
+                IsoDate.toEpochDay("2024-03-01"), IsoDate.toEpochDay("2024-04-01"))) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(3, cursor.getLong(1));
+            assertEquals(170.0, cursor.getDouble(4), 0);
+            assertEquals(179.0, cursor.getDouble(5), 0);
+        }
+    }
+
+    private void assertWeek(int week, long count, double min, double max) {
+        try (Cursor cursor = dbHelper.getRollups(userId, PeriodStats.Period.WEEK, week, week + 7)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(count, cursor.getLong(1));
+            assertEquals(min, cursor.getDouble(4), 0);
+            assertEquals(max, cursor.getDouble(5), 0);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.weighttracker.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class WeightCursorReaderTest {
+    private static final String DB_NAME = "cursor_reader_test.db";
+    private static final String[] PROJECTION = {DatabaseHelper.COLUMN_WEIGHT_ID, DatabaseHelper.COLUMN_DATE,
+            DatabaseHelper.COLUMN_DAY, DatabaseHelper.COLUMN_WEIGHT, DatabaseHelper.COLUMN_GOAL};
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private DatabaseHelper dbHelper;
+    private long userId;
+
+    @Before
+    public void setUp() {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, true);
+        assertTrue(dbHelper.addUser("reader_user", "password#1"));
+        userId = dbHelper.getUserId("reader_user");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void readAll_returnsOldestFirstWithIdsAscendingWithinADay() {
+        long a = dbHelper.addWeightAndGetId(userId, "2024-03-05", 180.0, 170.0);
+        long b = dbHelper.addWeightAndGetId(userId, "2024-03-01", 182.0, null);
+        long c = dbHelper.addWeightAndGetId(userId, "2024-03-05", 179.5, null);
+        long d = dbHelper.addWeightAndGetId(userId, "2024-03-03", 181.0, null);
+        long e = dbHelper.addWeightAndGetId(userId, "2024-03-05", 179.0, null);
+
+        WeightSeries series;
+        try (Cursor cursor = dbHelper.getWeightsByUser(userId)) {
+            series = new WeightCursorReader(cursor).readAllOldestFirst(userId, () -> true);
+        }
+
+        long[] expected = {b, d, a, c, e};
+        assertEquals(expected.length, series.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], series.getId(i));
+        }
+        assertEquals(IsoDate.toEpochDay("2024-03-01"), series.getEpochDay(0));
+        assertEquals(170.0, series.getGoal(2), 0);
+        assertFalse(series.hasGoal(3));
+    }
+
+    @Test
+    public void readAll_skipsInvalidDatesAndParsesUnmigratedRows() {
+        MatrixCursor cursor = new MatrixCursor(PROJECTION);
+        cursor.addRow(new Object[]{3L, "2024-01-03", null, 180.0, null}); // not migrated yet
+        cursor.addRow(new Object[]{9L, "not-a-date", null, 181.0, null});
+        cursor.addRow(new Object[]{1L, "2024-01-01", IsoDate.toEpochDay("2024-01-01"), 182.0, 175.0});
+
+        WeightSeries series = new WeightCursorReader(cursor).readAllOldestFirst(userId, () -> true);
+        cursor.close();
+
+        assertEquals(2, series.size());
+        assertEquals(1L, series.getId(0));
+        assertEquals(3L, series.getId(1));
+        assertEquals(IsoDate.toEpochDay("2024-01-03"), series.getEpochDay(1));
+    }
+
+    @Test
+    public void readAll_returnsNullWhenSuperseded() {
+        dbHelper.addWeightAndGetId(userId, "2024-03-05", 180.0, null);
+
+        try (Cursor cursor = dbHelper.getWeightsByUser(userId)) {
+            assertNull(new WeightCursorReader(cursor).readAllOldestFirst(userId, () -> false));
+        }
+    }
+}
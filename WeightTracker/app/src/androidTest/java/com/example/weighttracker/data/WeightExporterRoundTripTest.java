@@ -0,0 +1,87 @@
+package com.example.weighttracker.data;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class WeightExporterRoundTripTest {
+    private static final String DB_NAME = "export_test.db";
+    private static final int ROWS = 2500; // more than one progress interval and one write buffer
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private DatabaseHelper dbHelper;
+    private long userId;
+
+    @Before
+    public void setUp() throws Exception {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new DatabaseHelper(context, DB_NAME, true);
+        assertTrue(dbHelper.addUser("export_user", "password#1"));
+        assertTrue(dbHelper.addUser("import_user", "password#1"));
+        userId = dbHelper.getUserId("export_user");
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(IsoDate.format(17_000 + i)).append(',')
+                    .append(150 + (i % 100) * 0.25).append(i % 3 == 0 ? ",140\n" : "\n");
+        }
+        WeightImporter importer = new WeightImporter(dbHelper, userId, 500, null);
+        assertEquals(ROWS, importer.importCsv(new StringReader(csv.toString())).getRowsImported());
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void gzippedJsonExport_importsBackToTheSameRows() throws Exception {
+        List<long[]> progress = new ArrayList<>();
+        WeightExporter exporter = new WeightExporter(dbHelper,
+                (written, total) -> progress.add(new long[]{written, total}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(ROWS, exporter.exportTo(userId, out, WeightExporter.Format.JSON, true));
+
+        assertEquals(ROWS / WeightExporter.PROGRESS_INTERVAL + 1, progress.size());
+        assertEquals(ROWS, progress.get(progress.size() - 1)[0]);
+        assertEquals(ROWS, progress.get(progress.size() - 1)[1]);
+
+        long importUser = dbHelper.getUserId("import_user");
+        try (Reader reader = new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.US_ASCII)) {
+            WeightImporter.ImportStats stats = new WeightImporter(dbHelper, importUser, 500, null).importJson(reader);
+            assertEquals(ROWS, stats.getRowsImported());
+            assertEquals(0, stats.getRowsRejected());
+        }
+
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        exporter.exportTo(userId, original, WeightExporter.Format.CSV, false);
+        exporter.exportTo(importUser, copy, WeightExporter.Format.CSV, false);
+        assertArrayEquals(original.toByteArray(), copy.toByteArray());
+        assertTrue(original.toString("US-ASCII").startsWith("date,weight,goal\n"));
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.weighttracker.data;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weighttracker.model.WeightDelta;
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+import com.example.weighttracker.utils.TimeWindowAverage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class WeightRepositoryTest {
+    private static final String DB_NAME = "repository_test.db";
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final Context context = instrumentation.getTargetContext();
+    private HoldingDatabaseHelper dbHelper;
+    private WeightRepository repository;
+    private long userId;
+
+    @Before
+    public void setUp() {
+        context.deleteDatabase(DB_NAME);
+        dbHelper = new HoldingDatabaseHelper(context);
+        assertTrue(dbHelper.addUser("repository_user", "password#1"));
+        userId = dbHelper.getUserId("repository_user");
+        // The constructor seeds its LiveData with setValue, which must run on the main thread
+        instrumentation.runOnMainSync(() -> repository = new WeightRepository(dbHelper));
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.release.countDown();
+        dbHelper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void splices_matchAFullReloadAndLeaveEarlierSnapshotsAlone() throws Exception {
+        showUser(userId);
+        assertTrue(repository.insertWeight(entry("2024-03-01", 180.0)));
+        assertTrue(repository.insertWeight(entry("2024-03-03", 179.0)));
+        assertTrue(repository.insertWeight(entry("2024-03-05", 178.0)));
+        WeightSeries.View before = publishedSeries();
+        List<Double> averagesBefore = repository.getMovingAverage().getValue();
+
+        // Insert in the middle
+        assertTrue(repository.insertWeight(entry("2024-03-02", 181.0)));
+        assertDelta(WeightDelta.Type.INSERTED, 1);
+        assertDays(publishedSeries(), "2024-03-01", "2024-03-02", "2024-03-03", "2024-03-05");
+        assertDays(before, "2024-03-01", "2024-03-03", "2024-03-05");
+        assertEquals(3, averagesBefore.size());
+        assertEquals(179.5, averagesBefore.get(1), 1e-9);
+        assertMatchesReload();
+
+        // Same-date replace: the new reading goes after the old one, then the old one goes
+        long old = publishedSeries().getId(2);
+        assertTrue(repository.insertWeight(entry("2024-03-03", 177.0)));
+        assertDelta(WeightDelta.Type.INSERTED, 3);
+        assertTrue(repository.removeWeight(old, userId));
+        assertDelta(WeightDelta.Type.REMOVED, 2);
+        WeightSeries.View replaced = publishedSeries();
+        assertDays(replaced, "2024-03-01", "2024-03-02", "2024-03-03", "2024-03-05");
+        assertEquals(177.0, replaced.getWeight(2), 0);
+        assertMatchesReload();
+
+        // Remove the first and the last entry
+        assertTrue(repository.removeWeight(replaced.getId(0), userId));
+        assertDelta(WeightDelta.Type.REMOVED, 0);
+        assertTrue(repository.removeWeight(replaced.getId(3), userId));
+        assertDelta(WeightDelta.Type.REMOVED, 2);
+        assertDays(publishedSeries(), "2024-03-02", "2024-03-03");
+        assertDays(replaced, "2024-03-01", "2024-03-02", "2024-03-03", "2024-03-05");
+        assertMatchesReload();
+    }
+
+    @Test
+    public void load_finishesWhileABatchWriteIsInFlight() throws Exception {
+        assertTrue(dbHelper.addUser("other_user", "password#1"));
+        long otherId = dbHelper.getUserId("other_user");
+        assertTrue(dbHelper.addWeight(otherId, "2024-03-01", 150.0, null));
+        showUser(userId);
+
+        // Park the write thread inside a batch, as a long transaction would
+        dbHelper.holdWrites = true;
+        List<CompletableFuture<Boolean>> writes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            writes.add(repository.queueInsert(entry(IsoDate.format(IsoDate.toEpochDay("2024-01-01") + i), 170.0)));
+        }
+        assertTrue(dbHelper.writing.await(5, TimeUnit.SECONDS));
+
+        WeightSeries.View loaded = showUser(otherId); // fails if the load waits for the write
+        assertEquals(1, loaded.size());
+        assertFalse(writes.get(0).isDone()); // the batch is still held
+
+        dbHelper.release.countDown();
+        for (CompletableFuture<Boolean> write : writes) {
+            assertTrue(write.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void writesForAnotherUser_leaveTheLoadedUserOnScreen() throws Exception {
+        assertTrue(dbHelper.addUser("other_user", "password#1"));
+        long otherId = dbHelper.getUserId("other_user");
+        showUser(userId);
+
+        // A lone write takes the splice path, a burst goes through one batch
+        assertTrue(repository.queueInsert(new WeightEntry(otherId, "2024-03-01", 150.0, null))
+                .get(5, TimeUnit.SECONDS));
+        assertEquals(userId, publishedSeries().getUserId());
+
+        List<CompletableFuture<Boolean>> burst = new ArrayList<>();
+        for (int i = 2; i <= 5; i++) {
+            burst.add(repository.queueInsert(new WeightEntry(otherId, "2024-03-0" + i, 150.0, null)));
+        }
+        for (CompletableFuture<Boolean> write : burst) {
+            assertTrue(write.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(userId, publishedSeries().getUserId());
+
+        // Their state is read afresh when they are shown
+        assertEquals(5, showUser(otherId).size());
+    }
+
+    // Blocks every batch write until released, after signalling that one started
+    private static final class HoldingDatabaseHelper extends DatabaseHelper {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean holdWrites;
+
+        HoldingDatabaseHelper(Context context) {
+            super(context, DB_NAME, true);
+        }
+
+        @Override
+        public long addWeightAndGetId(long userId, String date, double weight, Double goal) {
+            hold();
+            return super.addWeightAndGetId(userId, date, weight, goal);
+        }
+
+        @Override
+        public boolean applyWeightBatch(List<WeightWriteQueue.Write> writes, boolean[] applied) {
+            hold();
+            return super.applyWeightBatch(writes, applied);
+        }
+
+        private void hold() {
+            if (!holdWrites) return;
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Show a user the way a screen does and wait until their series is published
+    private WeightSeries.View showUser(long id) throws InterruptedException {
+        instrumentation.runOnMainSync(() -> repository.getWeightsForUser(id).observeForever(entries -> { }));
+        long deadline = System.currentTimeMillis() + 5_000;
+        WeightSeries.View loaded = publishedSeries();
+        while (loaded == null || loaded.getUserId() != id) {
+            assertTrue("user " + id + " was not loaded in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+            loaded = publishedSeries();
+        }
+        return loaded;
+    }
+
+    private WeightEntry entry(String date, double weight) {
+        return new WeightEntry(userId, date, weight, null);
+    }
+
+    // postValue hands the snapshot to the main thread; let it run before reading
+    private WeightSeries.View publishedSeries() {
+        instrumentation.waitForIdleSync();
+        return repository.getSeries().getValue();
+    }
+
+    private void assertDelta(WeightDelta.Type type, int position) {
+        instrumentation.waitForIdleSync();
+        WeightDelta delta = repository.getLastDelta().getValue();
+        assertEquals(type, delta.getType());
+        assertEquals(position, delta.getPosition());
+    }
+
+    private static void assertDays(WeightSeries.View view, String... dates) {
+        assertEquals(dates.length, view.size());
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(dates[i], IsoDate.format(view.getEpochDay(i)));
+        }
+    }
+
+    // The spliced series and averages must equal what a fresh load would compute
+    private void assertMatchesReload() {
+        WeightSeries.View spliced = publishedSeries();
+        List<Double> averages = repository.getMovingAverage().getValue();
+        WeightSeries stored;
+        try (Cursor cursor = dbHelper.getWeightsByUser(userId)) {
+            stored = new WeightCursorReader(cursor).readAllOldestFirst(userId, () -> true);
+        }
+        double[] expected = TimeWindowAverage.calculate(stored.view(), 7, TimeWindowAverage.GapMode.SKIP);
+
+        assertEquals(stored.size(), spliced.size());
+        assertEquals(stored.size(), averages.size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(stored.getId(i), spliced.getId(i));
+            assertEquals(stored.getWeight(i), spliced.getWeight(i), 0);
+            assertEquals(expected[i], averages.get(i), 1e-9);
+        }
+    }
+}
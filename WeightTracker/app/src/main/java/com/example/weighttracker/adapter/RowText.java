@@ -0,0 +1,80 @@
+package com.example.weighttracker.adapter;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.FixedPointFormat;
+import com.example.weighttracker.utils.IsoDate;
+
+import java.util.Arrays;
+
+// Display text of every row of a snapshot, formatted once (off the main thread) into
+// one packed char array. Binding then hands slices of it to TextView.setText(char[],
+// int, int), so scrolling formats nothing and allocates nothing.
+final class RowText {
+
+    static final int DATE = 0;
+    static final int WEIGHT = 1;
+    static final int GOAL = 2;
+    static final int PROGRESS = 3; // "x lbs to go"; empty when there is no goal or it is reached
+    private static final int FIELDS = 4;
+
+    private static final String UNIT = " lbs";
+    private static final String TO_GO = " lbs to go";
+    private static final int MAX_ROW_LENGTH = IsoDate.LENGTH
+            + 3 * FixedPointFormat.MAX_LENGTH + 2 * UNIT.length() + TO_GO.length();
+
+    private final char[] chars;
+    private final int[] starts; // field k of row r spans [starts[i], starts[i + 1]), i = r * FIELDS + k
+
+    private RowText(char[] chars, int[] starts) {
+        this.chars = chars;
+        this.starts = starts;
+    }
+
+    static RowText build(WeightSeries.View rows) {
+        int n = rows != null ? rows.size() : 0;
+        char[] buffer = new char[n * MAX_ROW_LENGTH];
+        int[] starts = new int[n * FIELDS + 1];
+        int pos = 0;
+        for (int r = 0; r < n; r++) {
+            int i = r * FIELDS;
+            double weight = rows.getWeight(r);
+
+            starts[i + DATE] = pos;
+            IsoDate.formatInto(rows.getEpochDay(r), buffer, pos);
+            pos += IsoDate.LENGTH;
+
+            starts[i + WEIGHT] = pos;
+            pos += FixedPointFormat.format(weight, 1, buffer, pos);
+            pos += FixedPointFormat.append(UNIT, buffer, pos);
+
+            starts[i + GOAL] = pos;
+            starts[i + PROGRESS] = pos;
+            if (rows.hasGoal(r)) {
+                double goal = rows.getGoal(r);
+                pos += FixedPointFormat.format(goal, 1, buffer, pos);
+                pos += FixedPointFormat.append(UNIT, buffer, pos);
+
+                starts[i + PROGRESS] = pos;
+                if (weight > goal) {
+                    pos += FixedPointFormat.format(weight - goal, 1, buffer, pos);
+                    pos += FixedPointFormat.append(TO_GO, buffer, pos);
+                }
+            }
+        }
+        starts[n * FIELDS] = pos;
+        return new RowText(Arrays.copyOf(buffer, pos), starts);
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int start(int row, int field) {
+        return starts[row * FIELDS + field];
+    }
+
+    int length(int row, int field) {
+        int i = row * FIELDS + field;
+        return starts[i + 1] - starts[i];
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.weighttracker.adapter;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.weighttracker.model.WeightSeries;
+
+// Compares two snapshots of the weight list row by row straight from the primitive
+// columns: rows are the same item when their weight_id matches, and unchanged when
+// date, weight and goal all match.
+class SeriesDiffCallback extends DiffUtil.Callback {
+    private final WeightSeries.View oldRows;
+    private final WeightSeries.View newRows;
+
+    SeriesDiffCallback(WeightSeries.View oldRows, WeightSeries.View newRows) {
+        this.oldRows = oldRows;
+        this.newRows = newRows;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldRows.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newRows.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldPosition, int newPosition) {
+        return oldRows.getId(oldPosition) == newRows.getId(newPosition);
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldPosition, int newPosition) {
+        return oldRows.getEpochDay(oldPosition) == newRows.getEpochDay(newPosition)
+                && Double.compare(oldRows.getWeight(oldPosition), newRows.getWeight(newPosition)) == 0
+                && Double.compare(oldRows.getGoal(oldPosition), newRows.getGoal(newPosition)) == 0;
+    }
+}
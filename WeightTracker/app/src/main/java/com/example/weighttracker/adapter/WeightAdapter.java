@@ -1,6 +1,8 @@
 package com.example.weighttracker.adapter;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,26 +10,80 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weighttracker.R;
+import com.example.weighttracker.data.AppExecutors;
+import com.example.weighttracker.data.WeightPager;
 import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
 
-import java.util.ArrayList;
 import java.util.List;
 
+// Rows are identified by weight_id (stable ids), and new snapshots are diffed against
+// the displayed one on a background thread, so an add or delete only rebinds the rows
+// that actually changed instead of every visible row.
 public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder> {
+    private static final String ACHIEVED = "✓ Achieved";
+
     private final Context context;
-    private List<WeightEntry> weightList = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final int achievedColor; // resolved once rather than on every bind
+    private final int remainingColor;
+    private WeightSeries.View weights; // displayed rows, bound straight from the primitive columns
+    private RowText rowText; // display text of 'weights', formatted off the main thread
+    private WeightPager pager; // optional, asked for more rows when binding near the end
+    private int diffGeneration; // main thread only; a newer snapshot cancels pending diffs
 
     public WeightAdapter(Context context, List<WeightEntry> weightList) {
         this.context = context;
-        this.weightList = weightList;
+        this.achievedColor = ContextCompat.getColor(context, R.color.green_500);
+        this.remainingColor = ContextCompat.getColor(context, android.R.color.holo_red_light);
+        this.weights = toSeries(weightList);
+        this.rowText = RowText.build(weights);
+        setHasStableIds(true);
     }
 
+    // Entries should carry their weight_id, which is used as the stable row id
     public void setWeightList(List<WeightEntry> weightList) {
-        this.weightList = weightList;
-        notifyDataSetChanged();
+        setWeightSeries(toSeries(weightList));
+    }
+
+    // Show a new snapshot. Call on the main thread; the row text is formatted and the
+    // diff computed in the background, then the snapshot is applied with only the
+    // changed rows dispatched.
+    public void setWeightSeries(WeightSeries.View newWeights) {
+        WeightSeries.View oldWeights = weights;
+        int generation = ++diffGeneration;
+        if (oldWeights == newWeights) return;
+
+        // A pool, so diffs may finish out of order; the generation check drops stale ones
+        AppExecutors.computation().execute(() -> {
+            RowText newText = RowText.build(newWeights);
+            int oldCount = oldWeights != null ? oldWeights.size() : 0;
+            int newCount = newWeights != null ? newWeights.size() : 0;
+            // Nothing to compare when either side is empty: a plain range insert or remove
+            DiffUtil.DiffResult result = oldCount == 0 || newCount == 0 ? null
+                    : DiffUtil.calculateDiff(new SeriesDiffCallback(oldWeights, newWeights), false);
+
+            mainHandler.post(() -> {
+                if (generation != diffGeneration) return; // superseded while diffing
+                weights = newWeights;
+                rowText = newText;
+                if (result != null) {
+                    result.dispatchUpdatesTo(this);
+                } else {
+                    if (oldCount > 0) notifyItemRangeRemoved(0, oldCount);
+                    if (newCount > 0) notifyItemRangeInserted(0, newCount);
+                }
+            });
+        });
+    }
+
+    // Load further pages on demand as rows near the end of the list are bound
+    public void setPager(WeightPager pager) {
+        this.pager = pager;
     }
 
     @NonNull
@@ -39,26 +95,26 @@ public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        WeightEntry entry = weightList.get(position);
-
-        holder.tvDate.setText(entry.getDate());
-        holder.tvWeight.setText(String.format("%.1f lbs", entry.getWeight()));
+        if (pager != null && position >= getItemCount() - pager.getPrefetchDistance()) {
+            pager.loadNextPage();
+        }
 
-        if (entry.getGoal() != null) {
-            double currentWeight = entry.getWeight();
-            double goal = entry.getGoal();
+        char[] text = rowText.chars();
+        setText(holder.tvDate, text, position, RowText.DATE);
+        setText(holder.tvWeight, text, position, RowText.WEIGHT);
 
-            holder.tvGoal.setText(String.format("%.1f lbs", goal));
+        if (weights.hasGoal(position)) {
+            setText(holder.tvGoal, text, position, RowText.GOAL);
             holder.tvGoalLabel.setVisibility(View.VISIBLE);
             holder.tvGoal.setVisibility(View.VISIBLE);
             holder.tvProgress.setVisibility(View.VISIBLE);
 
-            if (currentWeight <= goal) {
-                holder.tvProgress.setText("✓ Achieved");
-                holder.tvProgress.setTextColor(ContextCompat.getColor(context, R.color.green_500));
+            if (weights.getWeight(position) <= weights.getGoal(position)) {
+                holder.tvProgress.setText(ACHIEVED);
+                holder.tvProgress.setTextColor(achievedColor);
             } else {
-                holder.tvProgress.setText(String.format("%.1f lbs to go", currentWeight - goal));
-                holder.tvProgress.setTextColor(ContextCompat.getColor(context, android.R.color.holo_red_light));
+                setText(holder.tvProgress, text, position, RowText.PROGRESS);
+                holder.tvProgress.setTextColor(remainingColor);
             }
         } else {
             holder.tvGoalLabel.setVisibility(View.GONE);
@@ -67,9 +123,26 @@ public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder
         }
     }
 
+    // TextView keeps a reference to the slice rather than copying it; the packed
+    // buffer of a snapshot is never modified, so that is safe
+    private void setText(TextView view, char[] text, int position, int field) {
+        view.setText(text, rowText.start(position, field), rowText.length(position, field));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return weights.getId(position);
+    }
+
     @Override
     public int getItemCount() {
-        return weightList != null ? weightList.size() : 0;
+        return weights != null ? weights.size() : 0;
+    }
+
+    private static WeightSeries.View toSeries(List<WeightEntry> entries) {
+        if (entries == null) return null;
+        long userId = entries.isEmpty() ? -1 : entries.get(0).getUserId();
+        return WeightSeries.fromEntries(userId, entries).view();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
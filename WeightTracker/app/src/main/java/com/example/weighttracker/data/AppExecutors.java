@@ -0,0 +1,56 @@
+package com.example.weighttracker.data;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executors shared by the whole app, so every ViewModel and repository queues its
+// database work in one place instead of each owning a thread of its own.
+//
+// Reads and writes are kept apart: with write-ahead logging a reader never waits for
+// an open write transaction, but it still would if it sat in the same queue behind a
+// long batch insert.
+public final class AppExecutors {
+
+    // Matches the default WAL reader pool; more threads would only wait for a connection
+    private static final int READ_THREADS = 2;
+
+    // Single thread: writes from every screen apply in the order they were submitted.
+    // Scheduled, so the write-behind queue can flush after its batching window.
+    private static final ScheduledExecutorService DATABASE_WRITE =
+            Executors.newSingleThreadScheduledExecutor(threadFactory("weighttracker-db-write"));
+
+    private static final ExecutorService DATABASE_READ =
+            Executors.newFixedThreadPool(READ_THREADS, threadFactory("weighttracker-db-read"));
+
+    // CPU-bound work that touches no database (list diffs, chart downsampling), kept off
+    // the database threads so it never delays a query. Leaves a core for the UI thread.
+    private static final ExecutorService COMPUTATION = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+            threadFactory("weighttracker-compute"));
+
+    private AppExecutors() {}
+
+    public static ScheduledExecutorService databaseWrite() {
+        return DATABASE_WRITE;
+    }
+
+    public static ExecutorService databaseRead() {
+        return DATABASE_READ;
+    }
+
+    public static ExecutorService computation() {
+        return COMPUTATION;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
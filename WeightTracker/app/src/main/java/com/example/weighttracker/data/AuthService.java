@@ -0,0 +1,117 @@
+package com.example.weighttracker.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.weighttracker.utils.PasswordHasher;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs login and registration (BCrypt work) off the UI thread.
+// The pool is small and its queue bounded: a BCrypt hash is CPU bound, so extra
+// threads only slow each other down, and repeated taps must not pile up work.
+// Requests beyond the queue are refused with Result.BUSY instead of queued.
+public class AuthService {
+    private static final String TAG = "AuthService";
+
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static final String PREFS_NAME = "auth_prefs";
+    private static final String KEY_BCRYPT_COST = "bcrypt_cost";
+
+    public enum Result { SUCCESS, INVALID_CREDENTIALS, REGISTRATION_FAILED, BUSY, ERROR }
+
+    public interface Callback {
+        // Called on a worker thread, or on the calling thread for BUSY; not called for
+        // cancelled requests
+        void onComplete(Result result, long userId);
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final SharedPreferences prefs;
+    private final ThreadPoolExecutor executor;
+    private Future<?> pending;
+
+    public AuthService(Context context, DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Apply the stored BCrypt cost, or measure one for this device the first time
+    public void calibrate() {
+        int stored = prefs.getInt(KEY_BCRYPT_COST, -1);
+        if (stored != -1) {
+            PasswordHasher.setCost(stored);
+            return;
+        }
+        submit(() -> {
+            int cost = PasswordHasher.calibrate(PasswordHasher.DEFAULT_TARGET_MILLIS);
+            PasswordHasher.setCost(cost);
+            prefs.edit().putInt(KEY_BCRYPT_COST, cost).apply();
+            Log.i(TAG, "BCrypt cost calibrated to " + cost);
+        });
+    }
+
+    public synchronized void login(String username, String password, Callback callback) {
+        cancel();
+        pending = submit(() -> {
+            long userId = dbHelper.validateUser(username, password) ? dbHelper.getUserId(username) : -1;
+            if (Thread.currentThread().isInterrupted()) return;
+            callback.onComplete(userId != -1 ? Result.SUCCESS : Result.INVALID_CREDENTIALS, userId);
+        }, callback);
+    }
+
+    public synchronized void register(String username, String password, Callback callback) {
+        cancel();
+        pending = submit(() -> {
+            boolean added = dbHelper.addUser(username, password);
+            if (Thread.currentThread().isInterrupted()) return;
+            callback.onComplete(added ? Result.SUCCESS : Result.REGISTRATION_FAILED, -1);
+        }, callback);
+    }
+
+    // Drop the request in flight. A hash that already started still runs to the end,
+    // but its result is discarded and the callback is not called.
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private Future<?> submit(Runnable task, Callback callback) {
+        Future<?> future = submit(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Authentication failed: " + e.getMessage());
+                if (!Thread.currentThread().isInterrupted()) callback.onComplete(Result.ERROR, -1);
+            }
+        });
+        if (future == null) callback.onComplete(Result.BUSY, -1);
+        return future;
+    }
+
+    private Future<?> submit(Runnable task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Authentication queue full");
+            return null;
+        }
+    }
+}
@@ -4,22 +4,27 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
+import android.database.sqlite.SQLiteConstraintException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import com.example.weighttracker.model.PeriodStats;
 import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+import com.example.weighttracker.utils.Metrics;
+import com.example.weighttracker.utils.PasswordHasher;
 
-import org.mindrot.jbcrypt.BCrypt;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.util.Arrays;
 import java.util.List;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "WeightTracker.db";
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 6;
 
     // Table and column names
     private static final String TABLE_USERS = "users";
@@ -35,11 +40,57 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_GOAL = "goal";
     public static final String COLUMN_USER_FK = "user_id"; // FK from weights → users
     public static final String COLUMN_WEIGHT_CREATED_AT = "created_at";
+    // Epoch day (days since 1970-01-01), the sort key since v4. Since v6 it is NOT NULL and
+    // a CHECK ties it to 'date', so the two can never disagree.
+    public static final String COLUMN_DAY = "day";
 
     private static final String INDEX_USER_WEIGHTS = "idx_user_weights_date";
+    private static final String INDEX_USER_WEIGHTS_DAY = "idx_user_weights_day";
+
+    // Upgraded databases fill 'day' from the TEXT date in the background, a chunk at a time.
+    // The partial index lists the rows still to do; it is dropped once the backfill is done.
+    private static final String INDEX_PENDING_DAYS = "idx_weights_day_pending";
+    private static final int MIGRATION_CHUNK_SIZE = 500;
+    private static final int PAGE_CACHE_KIB = 4096; // negative cache_size is in KiB
+    private static final String SQL_DAY_FROM_DATE =
+            "COALESCE(CAST(julianday(" + COLUMN_DATE + ") - 2440587.5 AS INTEGER), " + IsoDate.INVALID + ")";
+    private static final String SQL_MIGRATE_DAYS = "UPDATE " + TABLE_WEIGHTS + " SET " + COLUMN_DAY + " = " +
+            SQL_DAY_FROM_DATE + " WHERE " + COLUMN_WEIGHT_ID + " IN (SELECT " + COLUMN_WEIGHT_ID +
+            " FROM " + TABLE_WEIGHTS + " WHERE " + COLUMN_DAY + " IS NULL LIMIT " + MIGRATION_CHUNK_SIZE + ")";
+
+    // Hot-path statements, compiled once per open database (see StatementCache)
+    private static final String SQL_INSERT_WEIGHT = "INSERT INTO " + TABLE_WEIGHTS + "(" +
+            COLUMN_USER_FK + ", " + COLUMN_DATE + ", " + COLUMN_DAY + ", " + COLUMN_WEIGHT + ", " + COLUMN_GOAL +
+            ") VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_DELETE_WEIGHT = "DELETE FROM " + TABLE_WEIGHTS +
+            " WHERE " + COLUMN_WEIGHT_ID + " = ?";
+    private static final String SQL_USER_ID = "SELECT " + COLUMN_USER_ID + " FROM " + TABLE_USERS +
+            " WHERE " + COLUMN_USERNAME + " = ?";
+
+    private StatementCache statementCache;
+    private volatile boolean dayColumnReady; // false while an upgraded database is still backfilling
+    private volatile boolean rollupsReady; // false until an upgraded database's rollups are filled
+
+    private static DatabaseHelper instance;
+
+    // One helper (and so one SQLite connection) for the whole process
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
 
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME, true);
+    }
+
+    // writeAheadLogging: readers on other threads get their own connections and keep
+    // reading the last committed state while a write transaction is open, instead of
+    // waiting for it as with the default rollback journal
+    public DatabaseHelper(Context context, String name, boolean writeAheadLogging) {
+        super(context, name, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(writeAheadLogging);
     }
 
     @Override
@@ -53,17 +104,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COLUMN_PASSWORD + " TEXT NOT NULL CHECK(length(" + COLUMN_PASSWORD + ") >= 8)," +
                     COLUMN_CREATED_AT + " TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
 
-            db.execSQL("CREATE TABLE " + TABLE_WEIGHTS + "(" +
-                    COLUMN_WEIGHT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    COLUMN_DATE + " TEXT NOT NULL CHECK(" + COLUMN_DATE + " <= date('now'))," +
-                    COLUMN_WEIGHT + " REAL NOT NULL CHECK(" + COLUMN_WEIGHT + " >= 20 AND " + COLUMN_WEIGHT + " <= 300)," +
-                    COLUMN_GOAL + " REAL CHECK(" + COLUMN_GOAL + " IS NULL OR (" + COLUMN_GOAL + " >= 20 AND " + COLUMN_GOAL + " <= 300))," +
-                    COLUMN_USER_FK + " INTEGER NOT NULL," +
-                    COLUMN_WEIGHT_CREATED_AT + " TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                    "FOREIGN KEY(" + COLUMN_USER_FK + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_USER_ID + ") ON DELETE CASCADE)");
+            createWeightsTable(db, TABLE_WEIGHTS);
+            db.execSQL("CREATE INDEX " + INDEX_USER_WEIGHTS_DAY + " ON " + TABLE_WEIGHTS +
+                    "(" + COLUMN_USER_FK + ", " + COLUMN_DAY + " DESC)");
 
-            db.execSQL("CREATE INDEX " + INDEX_USER_WEIGHTS + " ON " + TABLE_WEIGHTS +
-                    "(" + COLUMN_USER_FK + ", " + COLUMN_DATE + " DESC)");
+            RollupSchema.create(db);
 
             db.setTransactionSuccessful();
         } catch (SQLException e) {
@@ -74,6 +119,18 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    private static void createWeightsTable(SQLiteDatabase db, String name) {
+        db.execSQL("CREATE TABLE " + name + "(" +
+                COLUMN_WEIGHT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," +
+                COLUMN_DATE + " TEXT NOT NULL CHECK(" + COLUMN_DATE + " <= date('now'))," +
+                COLUMN_DAY + " INTEGER NOT NULL CHECK(" + COLUMN_DAY + " = " + SQL_DAY_FROM_DATE + ")," +
+                COLUMN_WEIGHT + " REAL NOT NULL CHECK(" + COLUMN_WEIGHT + " >= 20 AND " + COLUMN_WEIGHT + " <= 300)," +
+                COLUMN_GOAL + " REAL CHECK(" + COLUMN_GOAL + " IS NULL OR (" + COLUMN_GOAL + " >= 20 AND " + COLUMN_GOAL + " <= 300))," +
+                COLUMN_USER_FK + " INTEGER NOT NULL," +
+                COLUMN_WEIGHT_CREATED_AT + " TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "FOREIGN KEY(" + COLUMN_USER_FK + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_USER_ID + ") ON DELETE CASCADE)");
+    }
+
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         enableForeignKeys(db);
@@ -82,7 +139,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             if (oldVersion < 2) {
                 db.execSQL("DROP TABLE IF EXISTS " + TABLE_WEIGHTS);
                 db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-                onCreate(db);
+                onCreate(db); // already the current schema
+                db.setTransactionSuccessful();
+                return;
             }
             if (oldVersion < 3) {
                 db.execSQL("ALTER TABLE " + TABLE_USERS + " ADD COLUMN " + COLUMN_CREATED_AT +
@@ -92,6 +151,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_USER_WEIGHTS + " ON " + TABLE_WEIGHTS +
                         "(" + COLUMN_USER_FK + ", " + COLUMN_DATE + " DESC)");
             }
+            if (oldVersion < 4) {
+                // Adding a nullable column is a metadata-only change; existing rows are
+                // backfilled later by migrateDays() without holding up the opening thread
+                db.execSQL("ALTER TABLE " + TABLE_WEIGHTS + " ADD COLUMN " + COLUMN_DAY + " INTEGER");
+                db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_PENDING_DAYS + " ON " + TABLE_WEIGHTS +
+                        "(" + COLUMN_WEIGHT_ID + ") WHERE " + COLUMN_DAY + " IS NULL");
+                db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_USER_WEIGHTS_DAY + " ON " + TABLE_WEIGHTS +
+                        "(" + COLUMN_USER_FK + ", " + COLUMN_DAY + " DESC)");
+            }
+            if (oldVersion < 5) {
+                // Weekly/monthly aggregates, maintained by triggers from here on; existing
+                // rows are rolled up by backfillRollups() once the database is open
+                RollupSchema.create(db, !indexExists(db, INDEX_PENDING_DAYS));
+                RollupSchema.startBackfill(db);
+            }
+            // v6 constrains 'day' (NOT NULL, CHECK against 'date'). SQLite can only add that by
+            // rebuilding the table, which migrateDays() does once every row has its day.
             db.setTransactionSuccessful();
         } catch (SQLException e) {
             Log.e(TAG, "Error upgrading database: " + e.getMessage());
@@ -100,10 +176,159 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        dayColumnReady = !indexExists(db, INDEX_PENDING_DAYS);
+        if ((!dayColumnReady || !isDayColumnConstrained(db)) && !db.isReadOnly()) {
+            AppExecutors.databaseWrite().execute(() -> migrateDays(db));
+        }
+        rollupsReady = !RollupSchema.isBackfillPending(db);
+        if (!rollupsReady && !db.isReadOnly()) {
+            AppExecutors.databaseWrite().execute(() -> backfillRollups(db));
+        }
+    }
+
+    // Backfill 'day' for rows written before v4 on the shared write thread, one short
+    // transaction per task: each chunk re-queues the next, so writes submitted meanwhile
+    // run between chunks instead of waiting for the whole backfill. Works on the database
+    // it was started for, so closing the helper stops it rather than reopening it.
+    // The last task rebuilds the table with the v6 constraints on 'day'.
+    private void migrateDays(SQLiteDatabase db) {
+        try {
+            int updated;
+            db.beginTransaction();
+            try {
+                SQLiteStatement statement = db.compileStatement(SQL_MIGRATE_DAYS);
+                try {
+                    updated = statement.executeUpdateDelete();
+                } finally {
+                    statement.close();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            if (updated > 0) {
+                AppExecutors.databaseWrite().execute(() -> migrateDays(db));
+                return;
+            }
+
+            db.beginTransaction();
+            try {
+                db.execSQL("DROP INDEX IF EXISTS " + INDEX_PENDING_DAYS);
+                db.execSQL("DROP INDEX IF EXISTS " + INDEX_USER_WEIGHTS); // superseded by the day index
+                if (!isDayColumnConstrained(db)) rebuildWeightsTable(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            dayColumnReady = true;
+            Log.i(TAG, "Date migration to epoch days complete");
+        } catch (SQLException | IllegalStateException e) {
+            // Closed or failed mid-way: the partial index still marks the rest for next open
+            Log.e(TAG, "Date migration interrupted: " + e.getMessage());
+        }
+    }
+
+    // Roll up the existing rows of an upgraded database like migrateDays(): one user per
+    // transaction on the write thread, each task queueing the next
+    private void backfillRollups(SQLiteDatabase db) {
+        try {
+            boolean more;
+            db.beginTransaction();
+            try {
+                more = RollupSchema.backfillNextUser(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            if (more) {
+                AppExecutors.databaseWrite().execute(() -> backfillRollups(db));
+                return;
+            }
+            rollupsReady = true;
+            Log.i(TAG, "Rollup backfill complete");
+        } catch (SQLException | IllegalStateException e) {
+            // Closed or failed mid-way: the progress row says where to resume on next open
+            Log.e(TAG, "Rollup backfill interrupted: " + e.getMessage());
+        }
+    }
+
+    // Copy every row into a table created with the current constraints and swap it in.
+    // One transaction on the write thread: readers keep the old table until it commits.
+    // Dropping the old table drops its triggers and indexes, so both are created again
+    // (the rollup triggers now rescan through the day index).
+    private static void rebuildWeightsTable(SQLiteDatabase db) {
+        String rebuilt = TABLE_WEIGHTS + "_v6";
+        String columns = COLUMN_WEIGHT_ID + ", " + COLUMN_DATE + ", " + COLUMN_DAY + ", " + COLUMN_WEIGHT + ", " +
+                COLUMN_GOAL + ", " + COLUMN_USER_FK + ", " + COLUMN_WEIGHT_CREATED_AT;
+        long sequence = 0; // AUTOINCREMENT must not hand out ids of rows deleted before the rebuild
+        try (Cursor cursor = db.rawQuery("SELECT seq FROM sqlite_sequence WHERE name = ?",
+                new String[]{TABLE_WEIGHTS})) {
+            if (cursor.moveToFirst()) sequence = cursor.getLong(0);
+        }
+
+        createWeightsTable(db, rebuilt);
+        db.execSQL("INSERT INTO " + rebuilt + "(" + columns + ") SELECT " + columns + " FROM " + TABLE_WEIGHTS);
+        db.execSQL("DROP TABLE " + TABLE_WEIGHTS);
+        db.execSQL("ALTER TABLE " + rebuilt + " RENAME TO " + TABLE_WEIGHTS);
+        db.execSQL("DELETE FROM sqlite_sequence WHERE name = ?", new Object[]{TABLE_WEIGHTS});
+        db.execSQL("INSERT INTO sqlite_sequence(name, seq) SELECT ?, MAX(?, IFNULL(MAX(" + COLUMN_WEIGHT_ID +
+                "), 0)) FROM " + TABLE_WEIGHTS, new Object[]{TABLE_WEIGHTS, sequence});
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_USER_WEIGHTS_DAY + " ON " + TABLE_WEIGHTS +
+                "(" + COLUMN_USER_FK + ", " + COLUMN_DAY + " DESC)");
+        RollupSchema.create(db);
+    }
+
+    private static boolean isDayColumnConstrained(SQLiteDatabase db) {
+        try (Cursor cursor = db.rawQuery("PRAGMA table_info(" + TABLE_WEIGHTS + ")", null)) {
+            int name = cursor.getColumnIndexOrThrow("name");
+            int notNull = cursor.getColumnIndexOrThrow("notnull");
+            while (cursor.moveToNext()) {
+                if (COLUMN_DAY.equals(cursor.getString(name))) return cursor.getInt(notNull) != 0;
+            }
+            return false;
+        }
+    }
+
+    private static boolean indexExists(SQLiteDatabase db, String name) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new String[]{name})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    // Column to sort and seek on: the INTEGER day once it is filled in, else the ISO text
+    // (both give the same order; the text index serves reads during the backfill)
+    private String orderColumn() {
+        return dayColumnReady ? COLUMN_DAY : COLUMN_DATE;
+    }
+
+    public boolean isDayColumnReady() {
+        return dayColumnReady;
+    }
+
+    public boolean areRollupsReady() {
+        return rollupsReady;
+    }
+
     @Override
     public void onConfigure(SQLiteDatabase db) {
         super.onConfigure(db);
         enableForeignKeys(db);
+        tuneConnection(db);
+    }
+
+    // Applies to the primary (writing) connection. With WAL, synchronous=NORMAL only syncs
+    // at checkpoints: commits stay atomic and consistent, and only the last few can be lost
+    // on power failure (not on an app crash). The larger page cache keeps the weights index
+    // and recent pages in memory across batch writes.
+    private void tuneConnection(SQLiteDatabase db) {
+        if (db.isWriteAheadLoggingEnabled()) {
+            db.execSQL("PRAGMA synchronous = NORMAL");
+        }
+        db.execSQL("PRAGMA cache_size = -" + PAGE_CACHE_KIB);
     }
 
     public void enableForeignKeys(SQLiteDatabase db) {
@@ -115,20 +340,24 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public boolean addUser(String username, String password) {
         if (!isPasswordValid(password) || !isUsernameValid(username)) return false;
 
+        long start = Metrics.startTimer();
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_USERNAME, username);
-        values.put(COLUMN_PASSWORD, BCrypt.hashpw(password, BCrypt.gensalt(12)));
+        values.put(COLUMN_PASSWORD, PasswordHasher.hash(password)); // slow by design; call off the UI thread
 
         try {
             return db.insertWithOnConflict(TABLE_USERS, null, values, SQLiteDatabase.CONFLICT_ABORT) != -1;
         } catch (SQLException e) {
             Log.e(TAG, "Error adding user: " + e.getMessage());
             return false;
+        } finally {
+            Metrics.stopTimer(Metrics.DB_ADD_USER, start);
         }
     }
 
     public boolean validateUser(String username, String password) {
+        long start = Metrics.startTimer();
         SQLiteDatabase db = this.getReadableDatabase();
         try (Cursor cursor = db.query(TABLE_USERS,
                 new String[]{COLUMN_PASSWORD},
@@ -138,70 +367,207 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
             if (cursor.moveToFirst()) {
                 String storedHash = cursor.getString(0);
-                return BCrypt.checkpw(password, storedHash);
+                return PasswordHasher.check(password, storedHash);
             }
             return false;
         } catch (Exception e) {
             Log.e(TAG, "Error validating user: " + e.getMessage());
             return false;
+        } finally {
+            Metrics.stopTimer(Metrics.DB_VALIDATE_USER, start);
         }
     }
 
     public long getUserId(String username) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        try (Cursor cursor = db.query(TABLE_USERS,
-                new String[]{COLUMN_USER_ID},
-                COLUMN_USERNAME + " = ?",
-                new String[]{username},
-                null, null, null)) {
-            return cursor.moveToFirst() ? cursor.getLong(0) : -1;
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting user ID: " + e.getMessage());
-            return -1;
+        long start = Metrics.startTimer();
+        SQLiteStatement statement = statement(this.getReadableDatabase(), SQL_USER_ID);
+        synchronized (statement) {
+            try {
+                statement.bindString(1, username);
+                return statement.simpleQueryForLong();
+            } catch (SQLiteDoneException e) {
+                return -1; // no such user
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting user ID: " + e.getMessage());
+                return -1;
+            } finally {
+                statement.clearBindings();
+                Metrics.stopTimer(Metrics.DB_GET_USER_ID, start);
+            }
         }
     }
 
     public boolean addWeight(long userId, String date, double weight, Double goal) {
+        return addWeightAndGetId(userId, date, weight, goal) != -1;
+    }
+
+    // Same as addWeight, but returns the new weight_id (or -1 on failure)
+    public long addWeightAndGetId(long userId, String date, double weight, Double goal) {
         if (!isValidWeight(weight) || !isValidDate(date) || (goal != null && !isValidWeight(goal))) {
-            return false;
+            return -1;
         }
 
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_USER_FK, userId);
-        values.put(COLUMN_DATE, date);
-        values.put(COLUMN_WEIGHT, weight);
-        if (goal != null) values.put(COLUMN_GOAL, goal);
+        long start = Metrics.startTimer();
+        SQLiteStatement statement = statement(this.getWritableDatabase(), SQL_INSERT_WEIGHT);
+        synchronized (statement) {
+            try {
+                return insertWeightRow(statement, userId, date, IsoDate.toEpochDay(date), weight,
+                        goal != null ? goal : WeightSeries.NO_GOAL);
+            } catch (SQLException e) {
+                Log.e(TAG, "Error adding weight: " + e.getMessage());
+                return -1;
+            } finally {
+                Metrics.stopTimer(Metrics.DB_ADD_WEIGHT, start);
+            }
+        }
+    }
 
+    // Bind one weight row to the cached insert and execute it; the caller holds the statement.
+    // A NaN goal (WeightSeries.NO_GOAL) is stored as NULL.
+    private static long insertWeightRow(SQLiteStatement statement, long userId, String date, int day,
+                                        double weight, double goal) {
         try {
-            return db.insertWithOnConflict(TABLE_WEIGHTS, null, values, SQLiteDatabase.CONFLICT_ABORT) != -1;
-        } catch (SQLException e) {
-            Log.e(TAG, "Error adding weight: " + e.getMessage());
-            return false;
+            statement.bindLong(1, userId);
+            statement.bindString(2, date);
+            statement.bindLong(3, day);
+            statement.bindDouble(4, weight);
+            if (!Double.isNaN(goal)) {
+                statement.bindDouble(5, goal);
+            } else {
+                statement.bindNull(5);
+            }
+            return statement.executeInsert();
+        } finally {
+            statement.clearBindings();
         }
     }
 
+    // Cached compiled statement for 'sql' on the currently open database. Writers lock the
+    // statements they use (insert before delete) before beginTransaction() or the execute
+    // call takes the primary connection; the opposite order would deadlock two writers.
+    private synchronized SQLiteStatement statement(SQLiteDatabase db, String sql) {
+        if (statementCache == null || !statementCache.isFor(db)) {
+            if (statementCache != null) statementCache.close();
+            statementCache = new StatementCache(db);
+        }
+        return statementCache.get(sql);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (statementCache != null) {
+            statementCache.close();
+            statementCache = null;
+        }
+        super.close();
+    }
+
+    // The ISO date column stays for compatibility; COLUMN_DAY carries the same date as an
+    // epoch day (NULL for rows the background migration has not reached yet).
+    // Rows come newest first, in exactly the index order, so SQLite never sorts.
+    // The timing covers compiling the query; rows are read when the cursor is first moved.
     public Cursor getWeightsByUser(long userId) {
+        long start = Metrics.startTimer();
+        try {
+            return this.getReadableDatabase().query(
+                    TABLE_WEIGHTS,
+                    new String[]{COLUMN_WEIGHT_ID, COLUMN_DATE, COLUMN_DAY, COLUMN_WEIGHT, COLUMN_GOAL},
+                    COLUMN_USER_FK + " = ?",
+                    new String[]{String.valueOf(userId)},
+                    null, null,
+                    orderColumn() + " DESC, " + COLUMN_WEIGHT_ID + " ASC"); // exactly the index order
+        } finally {
+            Metrics.stopTimer(Metrics.DB_GET_WEIGHTS, start);
+        }
+    }
+
+    // Every weight of a user, oldest first, for streaming out through a forward-only cursor.
+    // The index supplies the day order; SQLite only sorts ids within a day.
+    public Cursor getWeightsForExport(long userId) {
         return this.getReadableDatabase().query(
                 TABLE_WEIGHTS,
-                new String[]{COLUMN_WEIGHT_ID, COLUMN_DATE, COLUMN_WEIGHT, COLUMN_GOAL},
+                new String[]{COLUMN_WEIGHT_ID, COLUMN_DATE, COLUMN_DAY, COLUMN_WEIGHT, COLUMN_GOAL},
                 COLUMN_USER_FK + " = ?",
                 new String[]{String.valueOf(userId)},
                 null, null,
-                COLUMN_DATE + " DESC");
+                orderColumn() + " ASC, " + COLUMN_WEIGHT_ID + " ASC");
     }
 
-    public boolean deleteWeight(long weightId) {
-        SQLiteDatabase db = this.getWritableDatabase();
+    // One keyset page of a user's weights, newest first. Rows are ordered exactly like the
+    // (user_id, day DESC) index (or the date index while days are still being backfilled),
+    // so the seek past (afterDay, afterId) is an index range scan rather than an OFFSET skip.
+    // Pass afterDay = IsoDate.INVALID for the first page.
+    public Cursor getWeightsPage(long userId, int afterDay, long afterId, int limit) {
+        long start = Metrics.startTimer();
+        String order = orderColumn();
+        String selection;
+        String[] selectionArgs;
+        if (afterDay == IsoDate.INVALID) {
+            selection = COLUMN_USER_FK + " = ?";
+            selectionArgs = new String[]{String.valueOf(userId)};
+        } else {
+            String after = dayColumnReady ? String.valueOf(afterDay) : IsoDate.format(afterDay);
+            selection = COLUMN_USER_FK + " = ? AND (" + order + " < ? OR (" +
+                    order + " = ? AND " + COLUMN_WEIGHT_ID + " > ?))";
+            selectionArgs = new String[]{String.valueOf(userId), after, after, String.valueOf(afterId)};
+        }
         try {
-            return db.delete(TABLE_WEIGHTS, COLUMN_WEIGHT_ID + " = ?", new String[]{String.valueOf(weightId)}) > 0;
-        } catch (SQLException e) {
-            Log.e(TAG, "Error deleting weight: " + e.getMessage());
-            return false;
+            return this.getReadableDatabase().query(
+                    TABLE_WEIGHTS,
+                    new String[]{COLUMN_WEIGHT_ID, COLUMN_DATE, COLUMN_DAY, COLUMN_WEIGHT, COLUMN_GOAL},
+                    selection,
+                    selectionArgs,
+                    null, null,
+                    order + " DESC, " + COLUMN_WEIGHT_ID + " ASC",
+                    String.valueOf(limit));
+        } finally {
+            Metrics.stopTimer(Metrics.DB_GET_WEIGHTS_PAGE, start);
+        }
+    }
+
+    // Weekly or monthly aggregates of a user's weights for periods starting in
+    // [fromDay, toDay) (epoch days), oldest first: one row per period, not per entry.
+    // Aggregated from the weights themselves while an upgrade's rollup backfill is running.
+    public Cursor getRollups(long userId, PeriodStats.Period period, int fromDay, int toDay) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return rollupsReady ? RollupSchema.query(db, userId, period, fromDay, toDay)
+                : RollupSchema.aggregate(db, userId, period, fromDay, toDay);
+    }
+
+    // Date of a single weight row, or null if it does not exist
+    public String getWeightDate(long weightId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        try (Cursor cursor = db.query(TABLE_WEIGHTS,
+                new String[]{COLUMN_DATE},
+                COLUMN_WEIGHT_ID + " = ?",
+                new String[]{String.valueOf(weightId)},
+                null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting weight date: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean deleteWeight(long weightId) {
+        long start = Metrics.startTimer();
+        SQLiteStatement statement = statement(this.getWritableDatabase(), SQL_DELETE_WEIGHT);
+        synchronized (statement) {
+            try {
+                statement.bindLong(1, weightId);
+                return statement.executeUpdateDelete() > 0;
+            } catch (SQLException e) {
+                Log.e(TAG, "Error deleting weight: " + e.getMessage());
+                return false;
+            } finally {
+                statement.clearBindings();
+                Metrics.stopTimer(Metrics.DB_DELETE_WEIGHT, start);
+            }
         }
     }
 
     public boolean deleteUserAndWeights(long userId) {
+        long start = Metrics.startTimer();
         SQLiteDatabase db = this.getWritableDatabase();
         enableForeignKeys(db);
         db.beginTransaction();
@@ -214,6 +580,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             return false;
         } finally {
             db.endTransaction();
+            Metrics.stopTimer(Metrics.DB_DELETE_USER, start);
         }
     }
 
@@ -226,47 +593,134 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return username != null && username.length() >= 4;
     }
 
-    private boolean isValidWeight(double weight) {
+    static boolean isValidWeight(double weight) {
         return weight >= 20 && weight <= 300;
     }
 
     private boolean isValidDate(String date) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Date inputDate = sdf.parse(date);
-            return inputDate != null && !inputDate.after(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return IsoDate.isValid(date, IsoDate.todayUtc());
     }
 
     public boolean addWeightEntries(List<WeightEntry> entries) {
+        long start = Metrics.startTimer();
         SQLiteDatabase db = this.getWritableDatabase();
         enableForeignKeys(db);
-        db.beginTransaction();
-        try {
-            for (WeightEntry entry : entries) {
-                if (!isValidWeight(entry.getWeight()) || !isValidDate(entry.getDate())) {
-                    throw new SQLException("Invalid weight or date");
+        SQLiteStatement statement = statement(db, SQL_INSERT_WEIGHT);
+        int today = IsoDate.todayUtc(); // one clock read for the whole batch
+        synchronized (statement) { // statement before connection, as on every write path
+            db.beginTransaction();
+            try {
+                for (WeightEntry entry : entries) {
+                    int day = IsoDate.parseEpochDay(entry.getDate());
+                    if (!isValidWeight(entry.getWeight()) || day == IsoDate.INVALID || day > today) {
+                        throw new SQLException("Invalid weight or date");
+                    }
+
+                    Double goal = entry.getGoal();
+                    if (insertWeightRow(statement, entry.getUserId(), entry.getDate(), day, entry.getWeight(),
+                            goal != null ? goal : WeightSeries.NO_GOAL) == -1) {
+                        throw new SQLException("Insert failed");
+                    }
                 }
+                db.setTransactionSuccessful();
+                return true;
+            } catch (SQLException e) {
+                Log.e(TAG, "Batch insert failed: " + e.getMessage());
+                return false;
+            } finally {
+                db.endTransaction();
+                Metrics.stopTimer(Metrics.DB_ADD_WEIGHT_BATCH, start);
+            }
+        }
+    }
 
-                ContentValues values = new ContentValues();
-                values.put(COLUMN_USER_FK, entry.getUserId());
-                values.put(COLUMN_DATE, entry.getDate());
-                values.put(COLUMN_WEIGHT, entry.getWeight());
-                if (entry.getGoal() != null) values.put(COLUMN_GOAL, entry.getGoal());
-
-                if (db.insertWithOnConflict(TABLE_WEIGHTS, null, values, SQLiteDatabase.CONFLICT_ABORT) == -1) {
-                    throw new SQLException("Insert failed");
+    // The write-behind path: inserts and deletes queued by WeightWriteQueue, applied in
+    // queue order like addWeightEntries through the cached statements in one transaction
+    // (one commit, one WAL sync) however many rows there are. Unlike addWeightEntries an
+    // invalid row only fails itself: 'applied' gets each write's outcome. Returns false,
+    // keeping nothing, if the transaction itself failed.
+    public boolean applyWeightBatch(List<WeightWriteQueue.Write> writes, boolean[] applied) {
+        long start = Metrics.startTimer();
+        Arrays.fill(applied, false);
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement insert = statement(db, SQL_INSERT_WEIGHT);
+        SQLiteStatement delete = statement(db, SQL_DELETE_WEIGHT);
+        int today = IsoDate.todayUtc(); // one clock read for the whole batch
+        synchronized (insert) {
+            synchronized (delete) {
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < writes.size(); i++) {
+                        WeightWriteQueue.Write write = writes.get(i);
+                        applied[i] = write.isDelete() ? deleteWeightRow(delete, write.getWeightId())
+                                : insertValidWeightRow(insert, write.getEntry(), today);
+                    }
+                    db.setTransactionSuccessful();
+                    return true;
+                } catch (SQLException e) {
+                    Log.e(TAG, "Write batch failed: " + e.getMessage());
+                    Arrays.fill(applied, false);
+                    return false;
+                } finally {
+                    db.endTransaction();
+                    Metrics.stopTimer(Metrics.DB_APPLY_BATCH, start);
                 }
             }
-            db.setTransactionSuccessful();
-            return true;
-        } catch (SQLException e) {
-            Log.e(TAG, "Batch insert failed: " + e.getMessage());
+        }
+    }
+
+    // One queued insert: rejected rows are logged and skipped, not thrown
+    private static boolean insertValidWeightRow(SQLiteStatement insert, WeightEntry entry, int today) {
+        int day = IsoDate.parseEpochDay(entry.getDate());
+        Double goal = entry.getGoal();
+        if (!isValidWeight(entry.getWeight()) || day == IsoDate.INVALID || day > today
+                || (goal != null && !isValidWeight(goal))) {
+            return false;
+        }
+        try {
+            return insertWeightRow(insert, entry.getUserId(), entry.getDate(), day,
+                    entry.getWeight(), goal != null ? goal : WeightSeries.NO_GOAL) != -1;
+        } catch (SQLiteConstraintException e) {
+            Log.e(TAG, "Rejected weight for user " + entry.getUserId() + ": " + e.getMessage());
             return false;
+        }
+    }
+
+    private static boolean deleteWeightRow(SQLiteStatement delete, long weightId) {
+        try {
+            delete.bindLong(1, weightId);
+            return delete.executeUpdateDelete() > 0;
         } finally {
-            db.endTransaction();
+            delete.clearBindings();
+        }
+    }
+
+    // Insert every row of an already validated chunk in its own transaction, through the
+    // same cached statement as addWeightEntries. On failure nothing from the chunk is kept.
+    // Returns the number of rows inserted, or -1 if the chunk was rolled back.
+    public int addWeightChunk(WeightSeries chunk) {
+        long start = Metrics.startTimer();
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = statement(db, SQL_INSERT_WEIGHT);
+        synchronized (statement) {
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < chunk.size(); i++) {
+                    int day = chunk.getEpochDay(i);
+                    if (insertWeightRow(statement, chunk.getUserId(), IsoDate.format(day), day,
+                            chunk.getWeight(i), chunk.getGoal(i)) == -1) {
+                        throw new SQLException("Insert failed");
+                    }
+                }
+                db.setTransactionSuccessful();
+                return chunk.size();
+            } catch (SQLException e) {
+                Log.e(TAG, "Chunk insert failed: " + e.getMessage());
+                return -1;
+            } finally {
+                db.endTransaction();
+                Metrics.stopTimer(Metrics.DB_ADD_WEIGHT_CHUNK, start);
+            }
         }
     }
 }
@@ -0,0 +1,98 @@
+package com.example.weighttracker.data;
+
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+// LiveData filled by a background load that only starts once someone observes it.
+// Every load() supersedes the one before: a load that has not started yet is cancelled,
+// one that is running can stop early by checking isCurrent(), and a result tagged with
+// an older generation is dropped rather than posted over newer data. A keyed load()
+// whose key matches the load still pending or running joins it instead, so simultaneous
+// requests for the same data share one query.
+public class LoaderLiveData<T> extends MutableLiveData<T> {
+
+    public interface Loader<T> {
+        // Runs on the executor. Returns the value to post, or null to post nothing.
+        T load(int generation);
+    }
+
+    private final Executor executor;
+
+    // Guarded by 'this'
+    private Loader<T> pending; // waiting for an active observer
+    private Future<?> inFlight;
+    private Object key; // of the current generation's load, or null if it is not keyed
+    private int generation;
+
+    public LoaderLiveData(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Replace whatever load was requested before; returns the new generation
+    public int load(Loader<T> loader) {
+        return load(null, loader);
+    }
+
+    // Same, unless a load for an equal key is still pending or running: that one is joined
+    // and its generation returned, and 'loader' is not used
+    public synchronized int load(Object requestKey, Loader<T> loader) {
+        if (requestKey != null && requestKey.equals(key) && isLoading()) return generation;
+        generation++;
+        cancelInFlight();
+        pending = loader;
+        key = requestKey;
+        if (hasActiveObservers()) start();
+        return generation;
+    }
+
+    // Drop the pending or running load without starting another
+    public synchronized void cancel() {
+        generation++;
+        pending = null;
+        key = null;
+        cancelInFlight();
+    }
+
+    // False once a newer load was requested or the load was cancelled
+    public synchronized boolean isCurrent(int requestGeneration) {
+        return requestGeneration == generation;
+    }
+
+    public synchronized boolean isLoading() {
+        return pending != null || inFlight != null;
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        synchronized (this) {
+            if (pending != null) start();
+        }
+    }
+
+    private void start() {
+        Loader<T> loader = pending;
+        int requestGeneration = generation;
+        pending = null;
+        FutureTask<Void> task = new FutureTask<>(() -> deliver(requestGeneration, loader.load(requestGeneration)), null);
+        inFlight = task;
+        executor.execute(task);
+    }
+
+    private synchronized void deliver(int requestGeneration, T value) {
+        if (requestGeneration != generation) return;
+        inFlight = null;
+        if (value != null) postValue(value);
+    }
+
+    // Not interrupted: a running load finishes its current query and is then dropped
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+}
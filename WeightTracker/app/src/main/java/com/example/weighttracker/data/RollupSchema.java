@@ -0,0 +1,203 @@
+package com.example.weighttracker.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.weighttracker.model.PeriodStats;
+
+// Per-user weekly and monthly aggregates of the weights table (count, sum, sum of
+// squares, min, max), kept current by triggers so trend screens read one row per
+// period instead of every entry.
+//
+// Periods are keyed by the epoch day they start on: the Monday of the ISO week, or
+// the first of the month. Keys are derived from the TEXT date so they also work for
+// rows the 'day' backfill has not reached yet. The min/max rescan after a delete filters
+// on the indexed integer 'day'; while an upgraded database is still backfilling it
+// filters on the TEXT date (whose index lives exactly that long). The weights table is
+// rebuilt when that backfill ends, which recreates the triggers filtering on 'day'.
+// The triggers only use INSERT OR IGNORE plus UPDATE (no UPSERT), which every supported
+// SQLite version understands.
+//
+// Upgraded databases get the triggers at once but their existing rows are rolled up in
+// the background, one user per transaction (startBackfill / backfillNextUser). Until that
+// finishes, aggregate() computes the same rows straight from the weights table.
+final class RollupSchema {
+
+    static final String TABLE_WEEKLY = "weight_rollup_week";
+    static final String TABLE_MONTHLY = "weight_rollup_month";
+
+    static final String COLUMN_USER_ID = "user_id";
+    static final String COLUMN_PERIOD_START = "period_start";
+    static final String COLUMN_COUNT = "count";
+    static final String COLUMN_SUM = "sum";
+    static final String COLUMN_SUM_SQUARES = "sum_sq";
+    static final String COLUMN_MIN = "min_weight";
+    static final String COLUMN_MAX = "max_weight";
+
+    // Present only while a backfill is running: one row holding the last user rolled up
+    private static final String TABLE_BACKFILL = "weight_rollup_backfill";
+    private static final String COLUMN_LAST_USER = "last_user_id";
+
+    private static final String WEIGHTS = "weights";
+
+    // Period start of a date expression, and of the day after the period ends
+    private static final String WEEK_START = "date(%s, 'weekday 0', '-6 days')";
+    private static final String WEEK_END = "date(%s, 'weekday 0', '+1 day')";
+    private static final String MONTH_START = "date(%s, 'start of month')";
+    private static final String MONTH_END = "date(%s, 'start of month', '+1 month')";
+
+    private static final String AGGREGATES =
+            "COUNT(*), SUM(weight), SUM(weight * weight), MIN(weight), MAX(weight)";
+
+    private RollupSchema() {}
+
+    static void create(SQLiteDatabase db) {
+        create(db, true);
+    }
+
+    static void create(SQLiteDatabase db, boolean dayColumnReady) {
+        createPeriod(db, TABLE_WEEKLY, WEEK_START, WEEK_END, dayColumnReady);
+        createPeriod(db, TABLE_MONTHLY, MONTH_START, MONTH_END, dayColumnReady);
+    }
+
+    // Mark every user's rollups as to be rebuilt from their existing rows (upgrades)
+    static void startBackfill(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_BACKFILL + "(" + COLUMN_LAST_USER + " INTEGER NOT NULL)");
+        db.execSQL("DELETE FROM " + TABLE_BACKFILL);
+        db.execSQL("INSERT INTO " + TABLE_BACKFILL + " VALUES (0)");
+    }
+
+    static boolean isBackfillPending(SQLiteDatabase db) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{TABLE_BACKFILL})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    // Rebuild the rollups of the next user from their rows; call inside a transaction.
+    // The triggers may already have added to that user's periods, so they are replaced,
+    // not added to. Returns false, and ends the backfill, once every user is done.
+    static boolean backfillNextUser(SQLiteDatabase db) {
+        long userId;
+        try (Cursor cursor = db.rawQuery("SELECT MIN(user_id) FROM users WHERE user_id > (SELECT " +
+                COLUMN_LAST_USER + " FROM " + TABLE_BACKFILL + ")", null)) {
+            if (!cursor.moveToFirst() || cursor.isNull(0)) {
+                db.execSQL("DROP TABLE " + TABLE_BACKFILL);
+                return false;
+            }
+            userId = cursor.getLong(0);
+        }
+        backfillPeriod(db, TABLE_WEEKLY, WEEK_START, userId);
+        backfillPeriod(db, TABLE_MONTHLY, MONTH_START, userId);
+        db.execSQL("UPDATE " + TABLE_BACKFILL + " SET " + COLUMN_LAST_USER + " = ?", new Object[]{userId});
+        return true;
+    }
+
+    static String tableFor(PeriodStats.Period period) {
+        return period == PeriodStats.Period.WEEK ? TABLE_WEEKLY : TABLE_MONTHLY;
+    }
+
+    // Rollup rows of a user with period_start in [fromDay, toDay), oldest first
+    static Cursor query(SQLiteDatabase db, long userId, PeriodStats.Period period, int fromDay, int toDay) {
+        return db.query(tableFor(period),
+                new String[]{COLUMN_PERIOD_START, COLUMN_COUNT, COLUMN_SUM, COLUMN_SUM_SQUARES,
+                        COLUMN_MIN, COLUMN_MAX},
+                COLUMN_USER_ID + " = ? AND " + COLUMN_PERIOD_START + " >= ? AND " + COLUMN_PERIOD_START + " < ?",
+                new String[]{String.valueOf(userId), String.valueOf(fromDay), String.valueOf(toDay)},
+                null, null,
+                COLUMN_PERIOD_START + " ASC");
+    }
+
+    // The rows query() would return, computed from the weights table instead of the rollups
+    static Cursor aggregate(SQLiteDatabase db, long userId, PeriodStats.Period period, int fromDay, int toDay) {
+        String start = period == PeriodStats.Period.WEEK ? WEEK_START : MONTH_START;
+        return db.rawQuery("SELECT " + periodKey(start, null) + " AS " + COLUMN_PERIOD_START + ", " + AGGREGATES +
+                " FROM " + WEIGHTS + " WHERE user_id = ? AND date(date) IS NOT NULL GROUP BY " +
+                COLUMN_PERIOD_START + " HAVING " + COLUMN_PERIOD_START + " >= ? AND " + COLUMN_PERIOD_START +
+                " < ? ORDER BY " + COLUMN_PERIOD_START + " ASC",
+                new String[]{String.valueOf(userId), String.valueOf(fromDay), String.valueOf(toDay)});
+    }
+
+    private static void createPeriod(SQLiteDatabase db, String table, String start, String end,
+                                     boolean dayColumnReady) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + table + "(" +
+                COLUMN_USER_ID + " INTEGER NOT NULL REFERENCES users(user_id) ON DELETE CASCADE," +
+                COLUMN_PERIOD_START + " INTEGER NOT NULL," +
+                COLUMN_COUNT + " INTEGER NOT NULL," +
+                COLUMN_SUM + " REAL NOT NULL," +
+                COLUMN_SUM_SQUARES + " REAL NOT NULL," +
+                COLUMN_MIN + " REAL NOT NULL," +
+                COLUMN_MAX + " REAL NOT NULL," +
+                "PRIMARY KEY(" + COLUMN_USER_ID + ", " + COLUMN_PERIOD_START + ")) WITHOUT ROWID");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_insert AFTER INSERT ON " + WEIGHTS +
+                " BEGIN " + add(table, start, "NEW") + " END");
+        createRemovalTriggers(db, table, start, end, dayColumnReady);
+    }
+
+    private static void createRemovalTriggers(SQLiteDatabase db, String table, String start, String end,
+                                              boolean byDay) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_delete AFTER DELETE ON " + WEIGHTS +
+                " BEGIN " + remove(table, start, end, "OLD", byDay) + " END");
+        // Only fires for changes that move a row between periods or change its weight;
+        // the 'day' backfill does not touch these columns
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_update AFTER UPDATE OF weight, date, user_id ON " +
+                WEIGHTS + " BEGIN " + remove(table, start, end, "OLD", byDay) + add(table, start, "NEW") + " END");
+    }
+
+    private static String add(String table, String start, String row) {
+        String key = periodKey(start, row);
+        String weight = row + ".weight";
+        return "INSERT OR IGNORE INTO " + table + " VALUES (" + row + ".user_id, " + key + ", 0, 0, 0, " +
+                weight + ", " + weight + "); " +
+                "UPDATE " + table + " SET " +
+                COLUMN_COUNT + " = " + COLUMN_COUNT + " + 1, " +
+                COLUMN_SUM + " = " + COLUMN_SUM + " + " + weight + ", " +
+                COLUMN_SUM_SQUARES + " = " + COLUMN_SUM_SQUARES + " + " + weight + " * " + weight + ", " +
+                COLUMN_MIN + " = MIN(" + COLUMN_MIN + ", " + weight + "), " +
+                COLUMN_MAX + " = MAX(" + COLUMN_MAX + ", " + weight + ") " +
+                matchRow(row, key) + "; ";
+    }
+
+    // Count and sums are subtracted; min/max are only rescanned (over that one period)
+    // when the removed weight was the extreme, and an emptied period is dropped. The
+    // rescan is a range over (user_id, day), or over (user_id, date) before the backfill.
+    private static String remove(String table, String start, String end, String row, boolean byDay) {
+        String key = periodKey(start, row);
+        String weight = row + ".weight";
+        String periodRows = byDay
+                ? " FROM " + WEIGHTS + " WHERE user_id = " + row + ".user_id AND day >= " + key +
+                        " AND day < " + periodKey(end, row)
+                : " FROM " + WEIGHTS + " WHERE user_id = " + row + ".user_id AND date >= " +
+                        String.format(start, row + ".date") + " AND date < " + String.format(end, row + ".date");
+        return "UPDATE " + table + " SET " +
+                COLUMN_COUNT + " = " + COLUMN_COUNT + " - 1, " +
+                COLUMN_SUM + " = " + COLUMN_SUM + " - " + weight + ", " +
+                COLUMN_SUM_SQUARES + " = " + COLUMN_SUM_SQUARES + " - " + weight + " * " + weight + " " +
+                matchRow(row, key) + "; " +
+                "DELETE FROM " + table + " " + matchRow(row, key) + " AND " + COLUMN_COUNT + " <= 0; " +
+                "UPDATE " + table + " SET " +
+                COLUMN_MIN + " = (SELECT MIN(weight)" + periodRows + "), " +
+                COLUMN_MAX + " = (SELECT MAX(weight)" + periodRows + ") " +
+                matchRow(row, key) + " AND (" + COLUMN_MIN + " = " + weight + " OR " + COLUMN_MAX + " = " +
+                weight + "); ";
+    }
+
+    private static void backfillPeriod(SQLiteDatabase db, String table, String start, long userId) {
+        Object[] user = {userId};
+        db.execSQL("DELETE FROM " + table + " WHERE " + COLUMN_USER_ID + " = ?", user);
+        db.execSQL("INSERT INTO " + table + " SELECT user_id, " + periodKey(start, null) + " AS period, " +
+                AGGREGATES + " FROM " + WEIGHTS + " WHERE user_id = ? AND date(date) IS NOT NULL" +
+                " GROUP BY period", user);
+    }
+
+    // Epoch day of the period containing row.date (or the 'date' column when row is null)
+    private static String periodKey(String start, String row) {
+        String date = row != null ? row + ".date" : "date";
+        return "CAST(julianday(" + String.format(start, date) + ") - 2440587.5 AS INTEGER)";
+    }
+
+    private static String matchRow(String row, String key) {
+        return "WHERE " + COLUMN_USER_ID + " = " + row + ".user_id AND " + COLUMN_PERIOD_START + " = " + key;
+    }
+}
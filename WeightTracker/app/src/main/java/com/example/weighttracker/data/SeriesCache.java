@@ -0,0 +1,134 @@
+package com.example.weighttracker.data;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.Metrics;
+import com.example.weighttracker.utils.TimeWindowAverage;
+import com.example.weighttracker.utils.TrendAnalyzer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// LRU cache of other users' loaded series and the aggregates derived from them, bounded
+// by an estimate of their heap size. The repository keeps the current user's state itself
+// and parks it here when it loads someone else, so switching back skips SQLite entirely.
+// Registered for memory callbacks: trimmed when the app is hidden, emptied under pressure.
+class SeriesCache implements ComponentCallbacks2 {
+
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    // Bytes per series row: id, epoch day, weight, goal
+    private static final int ROW_BYTES = 8 + 4 + 8 + 8;
+    // Object headers, array headers and the trend's trailing window, roughly
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+
+    // One user's state as the repository left it; owned by the cache while parked
+    static final class Entry {
+        final WeightSeries series;
+        final double[] averages;
+        final int averageWindowDays;
+        final TimeWindowAverage.GapMode averageGapMode;
+        final TrendAnalyzer trend;
+        final long bytes;
+
+        Entry(WeightSeries series, double[] averages, int averageWindowDays,
+              TimeWindowAverage.GapMode averageGapMode, TrendAnalyzer trend) {
+            this.series = series;
+            this.averages = averages;
+            this.averageWindowDays = averageWindowDays;
+            this.averageGapMode = averageGapMode;
+            this.trend = trend;
+            this.bytes = (long) series.epochDayColumn().length * ROW_BYTES
+                    + (long) averages.length * 8 + ENTRY_OVERHEAD_BYTES;
+        }
+
+        long getUserId() {
+            return series.getUserId();
+        }
+    }
+
+    private final long maxBytes;
+    // Guarded by 'this'. Access order: the eldest entry is the least recently used.
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    SeriesCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Park a user's state. A state larger than the whole budget is not kept.
+    synchronized void put(Entry entry) {
+        invalidate(entry.getUserId());
+        if (entry.bytes > maxBytes) return;
+        entries.put(entry.getUserId(), entry);
+        bytes += entry.bytes;
+        trimToSize(maxBytes);
+    }
+
+    // Remove and return a user's parked state, or null
+    synchronized Entry take(long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null) {
+            Metrics.increment(Metrics.CACHE_MISS);
+            return null;
+        }
+        bytes -= entry.bytes;
+        Metrics.increment(Metrics.CACHE_HIT);
+        return entry;
+    }
+
+    // Forget a user whose rows changed behind the parked copy
+    synchronized void invalidate(long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) bytes -= entry.bytes;
+    }
+
+    synchronized boolean contains(long userId) {
+        return entries.containsKey(userId);
+    }
+
+    synchronized long sizeInBytes() {
+        return bytes;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    // Evict least recently used entries until at most 'limit' bytes remain
+    synchronized void trimToSize(long limit) {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > limit && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            Metrics.increment(Metrics.CACHE_EVICT);
+        }
+    }
+
+    // Only UI_HIDDEN and BACKGROUND are named: the RUNNING_* levels are deprecated and no
+    // longer delivered. Older platforms that still send them (all below UI_HIDDEN) get
+    // onLowMemory() when it matters; MODERATE and COMPLETE sit above BACKGROUND.
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            clear(); // next in line to be killed
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            trimToSize(maxBytes / 2);
+        }
+    }
+
+    // Required by ComponentCallbacks; marked deprecated like the method it implements
+    @Deprecated
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.weighttracker.data;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Pre-compiled SQLiteStatements for one open database, compiled on first use and
+// reused afterwards. A statement is not thread-safe: callers hold its monitor
+// while binding and executing it.
+class StatementCache {
+    private final SQLiteDatabase db;
+    private final Map<String, SQLiteStatement> statements = new HashMap<>();
+
+    StatementCache(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    boolean isFor(SQLiteDatabase database) {
+        return db == database && db.isOpen();
+    }
+
+    synchronized SQLiteStatement get(String sql) {
+        SQLiteStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = db.compileStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    synchronized void close() {
+        for (SQLiteStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.weighttracker.data;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+// Reads cursors over DatabaseHelper's weight projection (id, date, day, weight, goal).
+// Column indices are resolved once per cursor instead of once per row, and rows go
+// straight into primitive columns: no WeightEntry, boxed goal or date String per row.
+final class WeightCursorReader {
+    private static final String TAG = "WeightCursorReader";
+
+    // Rows read between checks for a superseded load
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final Cursor cursor;
+    private final int idIndex;
+    private final int dateIndex;
+    private final int dayIndex;
+    private final int weightIndex;
+    private final int goalIndex;
+
+    WeightCursorReader(Cursor cursor) {
+        this.cursor = cursor;
+        idIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_WEIGHT_ID);
+        dateIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE);
+        dayIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DAY);
+        weightIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_WEIGHT);
+        goalIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_GOAL);
+    }
+
+    // Epoch day of the current row, or IsoDate.INVALID. 'day' is NULL only for rows the
+    // v4 migration has not reached yet; only those pay for reading and parsing the date.
+    int day() {
+        return cursor.isNull(dayIndex) ? IsoDate.parseEpochDay(cursor.getString(dateIndex)) : cursor.getInt(dayIndex);
+    }
+
+    long id() {
+        return cursor.getLong(idIndex);
+    }
+
+    double weight() {
+        return cursor.getDouble(weightIndex);
+    }
+
+    // NULL goals come back as WeightSeries.NO_GOAL
+    double goal() {
+        return cursor.isNull(goalIndex) ? WeightSeries.NO_GOAL : cursor.getDouble(goalIndex);
+    }
+
+    // Drain a cursor in index order (newest day first, weight_id ascending within a day) into
+    // a series sorted oldest first with weight_id ascending within a day, without sorting:
+    // rows are written from the back, then each same-day run is flipped back in place.
+    // Rows with unreadable dates are skipped. Returns null if 'stillWanted' turns false.
+    WeightSeries readAllOldestFirst(long userId, BooleanSupplier stillWanted) {
+        int count = cursor.getCount();
+        long[] ids = new long[count];
+        int[] days = new int[count];
+        double[] weights = new double[count];
+        double[] goals = new double[count];
+
+        int write = count;
+        int previousDay = Integer.MAX_VALUE;
+        boolean ordered = true;
+        for (int row = 0; cursor.moveToNext(); row++) {
+            if (row % CANCEL_CHECK_INTERVAL == 0 && !stillWanted.getAsBoolean()) return null;
+            int day = day();
+            if (day == IsoDate.INVALID) {
+                Log.w(TAG, "Skipping weight " + id() + " with invalid date " + cursor.getString(dateIndex));
+                continue;
+            }
+            ordered &= day <= previousDay;
+            previousDay = day;
+            write--;
+            ids[write] = id();
+            days[write] = day;
+            weights[write] = weight();
+            goals[write] = goal();
+        }
+
+        int size = count - write;
+        if (write > 0) { // some rows were skipped: close the gap at the front
+            System.arraycopy(ids, write, ids, 0, size);
+            System.arraycopy(days, write, days, 0, size);
+            System.arraycopy(weights, write, weights, 0, size);
+            System.arraycopy(goals, write, goals, 0, size);
+        }
+        WeightSeries series = WeightSeries.fromColumns(userId, ids, days, weights, goals, size);
+        if (!ordered) {
+            // Only if 'day' and 'date' disagree somewhere; never expected, but stay correct
+            Log.w(TAG, "Weights of user " + userId + " came back out of order; sorting");
+            return sortedByDay(series);
+        }
+        reverseSameDayRuns(ids, days, weights, goals, size);
+        return series;
+    }
+
+    // Restore weight_id ascending order inside every run of equal days
+    private static void reverseSameDayRuns(long[] ids, int[] days, double[] weights, double[] goals, int size) {
+        int start = 0;
+        while (start < size) {
+            int end = start + 1;
+            while (end < size && days[end] == days[start]) end++;
+            for (int i = start, j = end - 1; i < j; i++, j--) {
+                long id = ids[i];
+                ids[i] = ids[j];
+                ids[j] = id;
+                double weight = weights[i];
+                weights[i] = weights[j];
+                weights[j] = weight;
+                double goal = goals[i];
+                goals[i] = goals[j];
+                goals[j] = goal;
+            }
+            start = end;
+        }
+    }
+
+    // Stable sort by day of a back-filled series: ties keep the cursor's order
+    private static WeightSeries sortedByDay(WeightSeries series) {
+        int n = series.size();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) series.getEpochDay(i) << 32) | (n - 1 - i); // low bits: cursor position
+        }
+        Arrays.sort(keys);
+
+        WeightSeries sorted = new WeightSeries(series.getUserId(), n);
+        for (long key : keys) {
+            int i = n - 1 - (int) key;
+            sorted.add(series.getId(i), series.getEpochDay(i), series.getWeight(i), series.getGoal(i));
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.weighttracker.data;
+
+import android.database.Cursor;
+
+import com.example.weighttracker.utils.FixedPointFormat;
+import com.example.weighttracker.utils.IsoDate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPOutputStream;
+
+// Streaming export of a user's whole history to CSV or JSON, oldest first.
+//
+// Rows come from a forward-only cursor (SQLite keeps one cursor window in memory, not
+// the result set), are encoded as ASCII into one reused row buffer and staged in a fixed
+// ByteBuffer that is written to the channel whenever it fills. No String, boxed number
+// or WeightEntry is created per row, so memory is the same for 100 rows or 10 million.
+//
+// The output is what WeightImporter reads back:
+// CSV:  a "date,weight,goal" header, then "yyyy-MM-dd,weight,goal" rows (empty goal if none).
+// JSON: an array of objects such as {"date":"2024-01-31","weight":181.5,"goal":170}.
+public class WeightExporter {
+
+    public enum Format { CSV, JSON }
+
+    public interface ProgressListener {
+        // Called every PROGRESS_INTERVAL rows and once at the end, on the exporting thread
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    public static final int PROGRESS_INTERVAL = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int WEIGHT_DECIMALS = 2;
+    // Longest JSON row: separator, fixed keys and punctuation, a date and two numbers
+    static final int MAX_ROW_LENGTH = 2 + 32 + IsoDate.LENGTH + 2 * FixedPointFormat.MAX_LENGTH;
+
+    private static final String CSV_HEADER = "date,weight,goal\n";
+
+    private final DatabaseHelper dbHelper;
+    private final ProgressListener listener;
+
+    // Reused for the whole export
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final char[] row = new char[MAX_ROW_LENGTH];
+
+    public WeightExporter(DatabaseHelper dbHelper, ProgressListener listener) {
+        this.dbHelper = dbHelper;
+        this.listener = listener;
+    }
+
+    // Export to a file, replacing it. A file channel is written directly unless gzipped.
+    public long exportTo(long userId, File file, Format format, boolean gzip) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            return gzip ? exportTo(userId, out, format, true) : exportTo(userId, out.getChannel(), format);
+        }
+    }
+
+    // Export to a stream (e.g. one opened through the Storage Access Framework).
+    // The stream is flushed but not closed. Returns the number of rows written.
+    public long exportTo(long userId, OutputStream out, Format format, boolean gzip) throws IOException {
+        if (!gzip) {
+            long rows = exportTo(userId, Channels.newChannel(out), format);
+            out.flush();
+            return rows;
+        }
+        GZIPOutputStream zip = new GZIPOutputStream(out, BUFFER_SIZE);
+        long rows = exportTo(userId, Channels.newChannel(zip), format);
+        zip.finish();
+        out.flush();
+        return rows;
+    }
+
+    // Export to any channel, which is left open. Returns the number of rows written.
+    public long exportTo(long userId, WritableByteChannel channel, Format format) throws IOException {
+        buffer.clear();
+        long written = 0;
+        long total = 0;
+        try (Cursor cursor = dbHelper.getWeightsForExport(userId)) {
+            WeightCursorReader reader = new WeightCursorReader(cursor);
+            put(channel, format == Format.CSV ? CSV_HEADER : "[");
+
+            while (cursor.moveToNext()) {
+                int day = reader.day();
+                if (day == IsoDate.INVALID) continue; // never importable, so never exported
+                int len = format == Format.CSV
+                        ? encodeCsvRow(day, reader.weight(), reader.goal(), row)
+                        : encodeJsonRow(day, reader.weight(), reader.goal(), written == 0, row);
+                put(channel, row, len);
+                written++;
+                if (listener != null && written % PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(written, cursor.getCount());
+                }
+            }
+            total = cursor.getCount();
+        }
+
+        if (format == Format.JSON) put(channel, "\n]\n");
+        drain(channel);
+        if (listener != null) listener.onProgress(written, total);
+        return written;
+    }
+
+    // "yyyy-MM-dd,weight,goal\n" into out; returns its length
+    static int encodeCsvRow(int day, double weight, double goal, char[] out) {
+        IsoDate.formatInto(day, out, 0);
+        int pos = IsoDate.LENGTH;
+        out[pos++] = ',';
+        pos += formatNumber(weight, out, pos);
+        out[pos++] = ',';
+        if (!Double.isNaN(goal)) pos += formatNumber(goal, out, pos);
+        out[pos++] = '\n';
+        return pos;
+    }
+
+    // One JSON array element, preceded by its separator; returns its length
+    static int encodeJsonRow(int day, double weight, double goal, boolean first, char[] out) {
+        int pos = 0;
+        if (!first) out[pos++] = ',';
+        pos += FixedPointFormat.append("\n{\"date\":\"", out, pos);
+        IsoDate.formatInto(day, out, pos);
+        pos += IsoDate.LENGTH;
+        pos += FixedPointFormat.append("\",\"weight\":", out, pos);
+        pos += formatNumber(weight, out, pos);
+        if (!Double.isNaN(goal)) {
+            pos += FixedPointFormat.append(",\"goal\":", out, pos);
+            pos += formatNumber(goal, out, pos);
+        }
+        out[pos++] = '}';
+        return pos;
+    }
+
+    // Up to WEIGHT_DECIMALS places without trailing zeros: 181.5, 180, 179.25
+    private static int formatNumber(double value, char[] out, int offset) {
+        int len = FixedPointFormat.format(value, WEIGHT_DECIMALS, out, offset);
+        if (len <= WEIGHT_DECIMALS || out[offset + len - WEIGHT_DECIMALS - 1] != '.') return len; // "-"
+        int end = offset + len;
+        while (out[end - 1] == '0') end--;
+        if (out[end - 1] == '.') end--;
+        return end - offset;
+    }
+
+    private void put(WritableByteChannel channel, String text) throws IOException {
+        int len = FixedPointFormat.append(text, row, 0);
+        put(channel, row, len);
+    }
+
+    // Every char written is ASCII, so each maps to one byte
+    private void put(WritableByteChannel channel, char[] chars, int len) throws IOException {
+        if (buffer.remaining() < len) drain(channel);
+        for (int i = 0; i < len; i++) {
+            buffer.put((byte) chars[i]);
+        }
+    }
+
+    private void drain(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
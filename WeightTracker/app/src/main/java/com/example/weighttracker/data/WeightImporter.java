@@ -0,0 +1,371 @@
+package com.example.weighttracker.data;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Streaming bulk import of weight rows from CSV or JSON.
+//
+// Input is read through a fixed char buffer and parsed field by field without creating
+// Strings or boxed numbers; valid rows are staged in a reusable columnar chunk and
+// committed through DatabaseHelper.addWeightChunk every 'chunkSize' rows. Memory stays
+// bounded by the buffer and one chunk no matter how large the input is, and a failing
+// chunk is rolled back on its own while the rest of the import carries on.
+//
+// CSV:  one "yyyy-MM-dd,weight[,goal]" row per line; a header line and blank lines are skipped.
+//       A field may be wrapped in double quotes, with "" for a quote inside it.
+// JSON: an array of objects such as {"date": "2024-01-31", "weight": 181.5, "goal": 170}.
+public class WeightImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final int MAX_FIELD_LENGTH = 64;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    public interface ProgressListener {
+        void onProgress(ImportStats stats);
+    }
+
+    // Commits one chunk in its own transaction; returns the rows inserted, or -1 after a rollback
+    interface ChunkWriter {
+        int addWeightChunk(WeightSeries chunk);
+    }
+
+    // Running totals, passed to the listener after every chunk and returned at the end
+    public static class ImportStats {
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsRejected;
+        private int chunksCommitted;
+        private int chunksFailed;
+        private long startNanos;
+        private long elapsedNanos;
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getRowsImported() {
+            return rowsImported;
+        }
+
+        // Rows that failed validation or belonged to a rolled back chunk
+        public long getRowsRejected() {
+            return rowsRejected;
+        }
+
+        public int getChunksCommitted() {
+            return chunksCommitted;
+        }
+
+        public int getChunksFailed() {
+            return chunksFailed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsImported * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final ChunkWriter writer;
+    private final int chunkSize;
+    private final ProgressListener listener;
+
+    // Reused for the whole import
+    private final WeightSeries chunk;
+    private final char[] readBuffer = new char[READ_BUFFER_SIZE];
+    private final char[] field = new char[MAX_FIELD_LENGTH];
+    private Reader reader;
+    private int readPos;
+    private int readLimit;
+    private int fieldLength;
+    private ImportStats stats;
+    private int today;
+
+    public WeightImporter(DatabaseHelper dbHelper, long userId, int chunkSize, ProgressListener listener) {
+        this(dbHelper::addWeightChunk, userId, chunkSize, listener);
+    }
+
+    WeightImporter(ChunkWriter writer, long userId, int chunkSize, ProgressListener listener) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.writer = writer;
+        this.chunkSize = chunkSize;
+        this.listener = listener;
+        this.chunk = new WeightSeries(userId, chunkSize);
+    }
+
+    public ImportStats importCsv(Reader input) throws IOException {
+        begin(input);
+        int c = read();
+        while (c != -1) {
+            // date
+            c = readCsvField(c);
+            int day = parseDate(fieldLength);
+            boolean blank = fieldLength == 0 && c != ',';
+
+            // weight
+            double weight = Double.NaN;
+            if (c == ',') {
+                c = readCsvField(read());
+                weight = parseDecimal(field, fieldLength);
+            }
+
+            // optional goal
+            double goal = WeightSeries.NO_GOAL;
+            boolean goalValid = true;
+            if (c == ',') {
+                c = readCsvField(read());
+                if (fieldLength > 0) {
+                    goal = parseDecimal(field, fieldLength);
+                    goalValid = !Double.isNaN(goal);
+                }
+            }
+
+            // ignore anything else on the line
+            while (c != '\n' && c != -1) c = read();
+            if (c == '\n') c = read();
+
+            if (blank) continue;
+            boolean header = stats.rowsRead == 0 && stats.rowsRejected == 0 && day == IsoDate.INVALID
+                    && Double.isNaN(weight);
+            if (header) continue;
+            accept(day, weight, goalValid ? goal : Double.NaN, goalValid);
+        }
+        return finish();
+    }
+
+    public ImportStats importJson(Reader input) throws IOException {
+        begin(input);
+        int c = skipWhitespace(read());
+        if (c != '[') throw new IOException("Expected a JSON array of rows");
+
+        c = skipWhitespace(read());
+        while (c != ']') {
+            if (c != '{') throw new IOException("Expected a JSON object, got '" + (char) c + "'");
+
+            int day = IsoDate.INVALID;
+            double weight = Double.NaN;
+            double goal = WeightSeries.NO_GOAL;
+            boolean goalValid = true;
+
+            c = skipWhitespace(read());
+            while (c != '}') {
+                if (c != '"') throw new IOException("Expected a field name");
+                int keyLen = readString();
+                int key = keyLen == 4 && matches("date") ? 1
+                        : keyLen == 6 && matches("weight") ? 2
+                        : keyLen == 4 && matches("goal") ? 3 : 0;
+
+                c = skipWhitespace(read());
+                if (c != ':') throw new IOException("Expected ':'");
+                c = skipWhitespace(read());
+
+                int len;
+                boolean isNull = false;
+                if (c == '"') {
+                    len = readString();
+                    c = read();
+                } else {
+                    len = 0;
+                    while (c != ',' && c != '}' && c > ' ') {
+                        len = append(len, c);
+                        c = read();
+                    }
+                    isNull = len == 4 && matches("null");
+                }
+
+                if (key == 1) {
+                    day = parseDate(len);
+                } else if (key == 2) {
+                    weight = parseDecimal(field, len);
+                } else if (key == 3 && !isNull) {
+                    goal = parseDecimal(field, len);
+                    goalValid = !Double.isNaN(goal);
+                }
+
+                c = skipWhitespace(c);
+                if (c == ',') c = skipWhitespace(read());
+                if (c == -1) throw new IOException("Unexpected end of input");
+            }
+
+            accept(day, weight, goal, goalValid);
+
+            c = skipWhitespace(read());
+            if (c == ',') c = skipWhitespace(read());
+            if (c == -1) throw new IOException("Unexpected end of input");
+        }
+        return finish();
+    }
+
+    private void begin(Reader input) {
+        reader = input;
+        readPos = 0;
+        readLimit = 0;
+        chunk.clear();
+        stats = new ImportStats();
+        stats.startNanos = System.nanoTime();
+        // The table CHECK compares against SQLite's date('now'), which is UTC. One clock
+        // read per import, not per row.
+        today = IsoDate.todayUtc();
+    }
+
+    private ImportStats finish() {
+        flush();
+        stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+        reader = null;
+        return stats;
+    }
+
+    // Validate one parsed row and stage it, committing the chunk once it is full
+    private void accept(int day, double weight, double goal, boolean goalValid) {
+        stats.rowsRead++;
+        boolean valid = day != IsoDate.INVALID && day <= today
+                && DatabaseHelper.isValidWeight(weight)
+                && goalValid && (Double.isNaN(goal) || DatabaseHelper.isValidWeight(goal));
+        if (!valid) {
+            stats.rowsRejected++;
+            return;
+        }
+        chunk.add(-1, day, weight, goal);
+        if (chunk.size() == chunkSize) flush();
+    }
+
+    private void flush() {
+        if (chunk.size() == 0) return;
+
+        int inserted = writer.addWeightChunk(chunk); // logs its own failure
+        if (inserted < 0) {
+            stats.chunksFailed++;
+            stats.rowsRejected += chunk.size();
+        } else {
+            stats.chunksCommitted++;
+            stats.rowsImported += inserted;
+        }
+        chunk.clear();
+
+        stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+        if (listener != null) listener.onProgress(stats);
+    }
+
+    private int read() throws IOException {
+        if (readPos == readLimit) {
+            readLimit = reader.read(readBuffer, 0, readBuffer.length);
+            readPos = 0;
+            if (readLimit <= 0) {
+                readLimit = 0;
+                return -1;
+            }
+        }
+        return readBuffer[readPos++];
+    }
+
+    private int skipWhitespace(int c) throws IOException {
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') c = read();
+        return c;
+    }
+
+    // Read a JSON string body (opening quote already consumed) into 'field'.
+    // Over-long values are truncated past MAX_FIELD_LENGTH and then fail validation.
+    private int readString() throws IOException {
+        int len = 0;
+        int c = read();
+        while (c != '"') {
+            if (c == -1) throw new IOException("Unterminated string");
+            if (c == '\\') c = read();
+            len = append(len, c);
+            c = read();
+        }
+        return len;
+    }
+
+    // Read one CSV field starting at 'c' into 'field' (length in 'fieldLength') and
+    // return the character that ended it
+    private int readCsvField(int c) throws IOException {
+        int len = 0;
+        if (c == '"') {
+            c = read();
+            while (c != -1) {
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') break; // closing quote; "" is a literal quote
+                }
+                len = append(len, c);
+                c = read();
+            }
+        }
+        while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+            len = append(len, c);
+            c = read();
+        }
+        fieldLength = len;
+        return c;
+    }
+
+    private int append(int len, int c) {
+        if (len < MAX_FIELD_LENGTH) field[len] = (char) c;
+        return len + 1;
+    }
+
+    private boolean matches(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (field[i] != literal.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int parseDate(int len) {
+        if (len > MAX_FIELD_LENGTH) return IsoDate.INVALID;
+        int start = 0;
+        while (len > 0 && field[len - 1] == ' ') len--;
+        while (start < len && field[start] == ' ') start++;
+        return IsoDate.parseEpochDay(field, start, len - start);
+    }
+
+    // Plain decimal ("181", "-3.25", "181.5") without allocation; NaN when malformed
+    static double parseDecimal(char[] buf, int len) {
+        if (len > buf.length) return Double.NaN; // over-long field, truncated by append()
+        int i = 0;
+        while (i < len && buf[i] == ' ') i++;
+        while (len > i && buf[len - 1] == ' ') len--;
+        if (i == len) return Double.NaN;
+
+        boolean negative = buf[i] == '-';
+        if (negative || buf[i] == '+') i++;
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < len; i++) {
+            char ch = buf[i];
+            if (ch == '.' && !fraction) {
+                fraction = true;
+            } else if (ch >= '0' && ch <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (ch - '0');
+                    digits++;
+                    if (fraction) scale++;
+                } else if (!fraction) {
+                    return Double.NaN; // far outside any valid weight
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) return Double.NaN;
+
+        double value = mantissa;
+        if (scale > 0) value /= POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+}
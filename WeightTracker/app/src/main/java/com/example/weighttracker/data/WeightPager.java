@@ -0,0 +1,132 @@
+package com.example.weighttracker.data;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.weighttracker.model.WeightSeries;
+
+import java.util.concurrent.Executor;
+
+// Paging-style loader on top of WeightPagingSource. Pages are fetched on the given
+// executor only when asked for (typically when the list scrolls near its end) and
+// published as a growing snapshot, so memory and first-frame cost depend on how far
+// the user scrolled rather than on the size of the history.
+public class WeightPager {
+    private static final String TAG = "WeightPager";
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final WeightPagingSource source;
+    private final Executor executor;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final MutableLiveData<WeightSeries.View> itemsLiveData = new MutableLiveData<>();
+
+    // Guarded by 'this'. Rows are kept newest first, in display order.
+    private WeightSeries loaded;
+    private WeightPagingSource.PageKey nextKey;
+    private boolean endReached;
+    private boolean loading;
+    private int generation; // bumped by refresh() so late pages of an old load are dropped
+
+    public WeightPager(WeightPagingSource source, Executor executor) {
+        this(source, executor, DEFAULT_PAGE_SIZE);
+    }
+
+    public WeightPager(WeightPagingSource source, Executor executor, int pageSize) {
+        this.source = source;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.prefetchDistance = Math.max(1, pageSize / 2);
+        this.loaded = new WeightSeries(source.getUserId(), pageSize);
+    }
+
+    public LiveData<WeightSeries.View> getItems() {
+        return itemsLiveData;
+    }
+
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    public long getUserId() {
+        return source.getUserId();
+    }
+
+    // Fetch the next page unless one is already in flight or the end was reached
+    public void loadNextPage() {
+        final WeightPagingSource.PageKey key;
+        final WeightSeries target;
+        final int requestGeneration;
+        synchronized (this) {
+            if (loading || endReached) return;
+            loading = true;
+            key = nextKey;
+            target = loaded;
+            requestGeneration = generation;
+        }
+
+        executor.execute(() -> {
+            // Only rows past every published view's bounds are written, so views stay valid
+            LoadResult result = loadOrNull(key, pageSize, target, requestGeneration);
+            if (result == null) return;
+            publish(result.nextKey, target, requestGeneration);
+        });
+    }
+
+    // Reload from the top, keeping as many rows as were already loaded so the
+    // visible position survives inserts and deletes
+    public void refresh() {
+        final int requestGeneration;
+        final int count;
+        synchronized (this) {
+            requestGeneration = ++generation;
+            count = Math.max(pageSize, loaded.size());
+            loading = true;
+        }
+
+        executor.execute(() -> {
+            WeightSeries fresh = new WeightSeries(source.getUserId(), count);
+            LoadResult result = loadOrNull(null, count, fresh, requestGeneration);
+            if (result == null) return;
+            publish(result.nextKey, fresh, requestGeneration);
+        });
+    }
+
+    private void publish(WeightPagingSource.PageKey key, WeightSeries series, int requestGeneration) {
+        WeightSeries.View snapshot;
+        synchronized (this) {
+            if (requestGeneration != generation) return;
+            loaded = series;
+            nextKey = key;
+            endReached = key == null;
+            loading = false;
+            snapshot = series.view();
+        }
+        itemsLiveData.postValue(snapshot);
+    }
+
+    private static final class LoadResult {
+        final WeightPagingSource.PageKey nextKey;
+
+        LoadResult(WeightPagingSource.PageKey nextKey) {
+            this.nextKey = nextKey;
+        }
+    }
+
+    // A failed load clears the in-flight flag so the next scroll can retry
+    private LoadResult loadOrNull(WeightPagingSource.PageKey key, int size, WeightSeries target,
+                                  int requestGeneration) {
+        try {
+            return new LoadResult(source.loadInto(key, size, target));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error loading page: " + e.getMessage());
+            synchronized (this) {
+                if (requestGeneration == generation) loading = false;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.weighttracker.data;
+
+import android.database.Cursor;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+// Loads a user's weights one keyset page at a time, newest first.
+// Each page remembers the (epoch day, weight_id) of its last row as the key for the next one.
+public class WeightPagingSource {
+
+    public static class PageKey {
+        private final int epochDay;
+        private final long weightId;
+
+        public PageKey(int epochDay, long weightId) {
+            this.epochDay = epochDay;
+            this.weightId = weightId;
+        }
+
+        public int getEpochDay() {
+            return epochDay;
+        }
+
+        public long getWeightId() {
+            return weightId;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final long userId;
+
+    public WeightPagingSource(DatabaseHelper dbHelper, long userId) {
+        this.dbHelper = dbHelper;
+        this.userId = userId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    // Append the page that starts after 'key' (null for the first page) to 'target'.
+    // Returns the key of the following page, or null once the last page was read.
+    public PageKey loadInto(PageKey key, int pageSize, WeightSeries target) {
+        int start = target.size();
+        target.ensureCapacity(start + pageSize);
+        try (Cursor cursor = dbHelper.getWeightsPage(userId,
+                key != null ? key.getEpochDay() : IsoDate.INVALID,
+                key != null ? key.getWeightId() : -1,
+                pageSize)) {
+            WeightCursorReader reader = new WeightCursorReader(cursor);
+            while (cursor.moveToNext()) {
+                int day = reader.day();
+                if (day == IsoDate.INVALID) {
+                    // Unreadable dates sort after every real day, so nothing valid follows
+                    return null;
+                }
+                target.add(reader.id(), day, reader.weight(), reader.goal());
+            }
+        }
+
+        int last = target.size() - 1;
+        if (target.size() - start < pageSize) return null;
+        return new PageKey(target.getEpochDay(last), target.getId(last));
+    }
+}
@@ -2,85 +2,421 @@ package com.example.weighttracker.data;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.weighttracker.model.PeriodStats;
+import com.example.weighttracker.model.WeightDelta;
 import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.DoubleListView;
+import com.example.weighttracker.utils.IsoDate;
+import com.example.weighttracker.utils.Metrics;
+import com.example.weighttracker.utils.TimeWindowAverage;
+import com.example.weighttracker.utils.TrendAnalyzer;
+import com.example.weighttracker.utils.WeightUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 
 public class WeightRepository {
+    private static final String TAG = "WeightRepository";
 
     private final DatabaseHelper dbHelper;
-    private final MutableLiveData<List<WeightEntry>> weightEntriesLiveData = new MutableLiveData<>();
+    // Loads run on the read executor once the list is observed; a newer request supersedes older ones
+    private final LoaderLiveData<List<WeightEntry>> weightEntriesLiveData =
+            new LoaderLiveData<>(AppExecutors.databaseRead());
     private final MutableLiveData<List<Double>> movingAverageLiveData = new MutableLiveData<>();
 
-    public WeightRepository(Context context) {
-        dbHelper = new DatabaseHelper(context);
+    // Calendar window used for the moving average LiveData
+    private volatile int averageWindowDays = 7;
+    private volatile TimeWindowAverage.GapMode averageGapMode = TimeWindowAverage.GapMode.SKIP;
+
+    // In-memory series of the loaded user, sorted by date, with parallel primitive columns
+    // so a single insert or delete can be spliced in without reloading everything.
+    // This state is guarded by 'this'. Writes commit to the database outside the lock and
+    // only take it to splice and publish, so a load never waits for a write transaction.
+    // A load that ran after a commit may already hold the row, so splices are idempotent.
+    private final MutableLiveData<WeightDelta> deltaLiveData = new MutableLiveData<>();
+    private final MutableLiveData<TrendAnalyzer.Snapshot> trendLiveData = new MutableLiveData<>();
+    // EWMA (7-day half-life), 28-day slope and goal ETA; fed one entry at a time on appends
+    private static final int TREND_HALF_LIFE_DAYS = 7;
+    private static final int TREND_WINDOW_DAYS = 28;
+    private TrendAnalyzer trend = new TrendAnalyzer(TREND_HALF_LIFE_DAYS, TREND_WINDOW_DAYS);
+    private long loadedUserId = -1;
+    private final MutableLiveData<WeightSeries.View> seriesLiveData = new MutableLiveData<>();
+    private WeightSeries series = new WeightSeries(-1);
+    private double[] averages = new double[0];
+    // The published moving average list shares [0, averagesShared) of 'averages'
+    private int averagesShared;
+
+    // State of users loaded earlier, so switching back to them skips the database
+    private final SeriesCache cache = new SeriesCache(SeriesCache.DEFAULT_MAX_BYTES);
+
+    // Batches inserts and deletes queued within a few milliseconds of each other
+    private final WeightWriteQueue writeQueue = new WeightWriteQueue(this::applyWrites, AppExecutors.databaseWrite());
+
+    private static WeightRepository instance;
+
+    // Shared by every screen, so a user's history is held in memory once
+    public static synchronized WeightRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new WeightRepository(DatabaseHelper.getInstance(context));
+            context.getApplicationContext().registerComponentCallbacks(instance.cache);
+        }
+        return instance;
+    }
+
+    // Package-private so instrumented tests can run a repository over their own database
+    WeightRepository(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
         weightEntriesLiveData.setValue(new ArrayList<>());
         movingAverageLiveData.setValue(new ArrayList<>());
     }
 
-    // Expose weight entries for a specific user as LiveData
+    // Expose weight entries for a specific user as LiveData; the load starts in the
+    // background once the LiveData is observed. The user already loaded, or one parked
+    // in the cache, is published from memory without touching the database. Screens
+    // asking for the same user while its load is pending or running share that load.
     public LiveData<List<WeightEntry>> getWeightsForUser(long userId) {
-        loadWeightsFromDb(userId);
+        weightEntriesLiveData.load(userId, generation -> {
+            showUser(userId, () -> weightEntriesLiveData.isCurrent(generation));
+            return null; // published under the repository lock, together with the series
+        });
         return weightEntriesLiveData;
     }
 
+    // Reload a user's weights from the database off the calling thread. Supersedes any
+    // earlier request, so asking for user A and then user B can never leave A's weights on screen.
+    public void refresh(long userId) {
+        weightEntriesLiveData.load(generation -> {
+            loadWeightsFromDb(userId, () -> weightEntriesLiveData.isCurrent(generation));
+            return null;
+        });
+    }
+
+    private synchronized void showUser(long userId, BooleanSupplier stillWanted) {
+        if (!stillWanted.getAsBoolean()) return;
+        if (userId != loadedUserId) {
+            SeriesCache.Entry parked = cache.take(userId);
+            if (parked == null) {
+                loadWeightsFromDb(userId, stillWanted);
+                return;
+            }
+            restoreSeries(parked);
+        }
+        publishSeries();
+    }
+
+    // Keyset pager over the user's history, newest first, for on-demand list loading
+    public WeightPager createPager(long userId, Executor executor) {
+        return new WeightPager(new WeightPagingSource(dbHelper, userId), executor);
+    }
+
+    // Columnar snapshot of the loaded series, published alongside the entry list
+    public LiveData<WeightSeries.View> getSeries() {
+        return seriesLiveData;
+    }
+
     // Expose moving average LiveData
     public LiveData<List<Double>> getMovingAverage() {
         return movingAverageLiveData;
     }
 
+    // Expose the last incremental change applied to the series
+    public LiveData<WeightDelta> getLastDelta() {
+        return deltaLiveData;
+    }
+
+    // EWMA, trailing slope and projected goal date of the loaded series
+    public LiveData<TrendAnalyzer.Snapshot> getTrendSnapshot() {
+        return trendLiveData;
+    }
+
+    // Configure the calendar window and gap handling used for the moving average
+    public void setMovingAverageWindow(int days, TimeWindowAverage.GapMode gapMode) {
+        if (days <= 0) throw new IllegalArgumentException("Window must be positive: " + days);
+        synchronized (this) {
+            averageWindowDays = days;
+            averageGapMode = gapMode;
+            if (loadedUserId != -1) {
+                averages = TimeWindowAverage.calculate(series.epochDayColumn(), series.weightColumn(),
+                        series.size(), days, gapMode);
+                publishSeries();
+            }
+        }
+    }
+
     // Load weights from DB and update LiveData objects
-    private void loadWeightsFromDb(long userId) {
-        List<WeightEntry> weights = new ArrayList<>();
-        Cursor cursor = dbHelper.getWeightsByUser(userId);
-
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                do {
-                    long id = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_WEIGHT_ID));
-                    String date = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE));
-                    double weight = cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_WEIGHT));
-
-                    int goalIndex = cursor.getColumnIndex(DatabaseHelper.COLUMN_GOAL);
-                    Double goal = null;
-                    if (goalIndex != -1 && !cursor.isNull(goalIndex)) {
-                        goal = cursor.getDouble(goalIndex);
-                    }
-
-                    WeightEntry entry = new WeightEntry(userId, date, weight, goal);
-                    weights.add(entry);
-                } while (cursor.moveToNext());
+    private synchronized void loadWeightsFromDb(long userId) {
+        loadWeightsFromDb(userId, () -> true);
+    }
+
+    // Same, giving up without publishing as soon as 'stillWanted' turns false.
+    // The query returns rows in index order, so the drain needs no sort of its own.
+    private synchronized void loadWeightsFromDb(long userId, BooleanSupplier stillWanted) {
+        if (!stillWanted.getAsBoolean()) return;
+        long phase = Metrics.startTimer();
+        WeightSeries loaded;
+        try (Cursor cursor = dbHelper.getWeightsByUser(userId)) {
+            WeightCursorReader reader = new WeightCursorReader(cursor);
+            cursor.getCount(); // runs the query and fills the first window
+            phase = Metrics.stopTimer(Metrics.LOAD_QUERY, phase);
+            loaded = reader.readAllOldestFirst(userId, stillWanted);
+        } catch (SQLException | IllegalArgumentException e) {
+            Log.e(TAG, "Error loading weights: " + e.getMessage());
+            return;
+        }
+        if (loaded == null || !stillWanted.getAsBoolean()) {
+            Metrics.increment(Metrics.LOAD_CANCELLED);
+            return;
+        }
+        phase = Metrics.stopTimer(Metrics.LOAD_DRAIN, phase);
+        Metrics.record(Metrics.LOAD_ROWS, loaded.size());
+
+        resetSeries(loaded);
+        phase = Metrics.stopTimer(Metrics.LOAD_AGGREGATE, phase);
+        publishSeries();
+        Metrics.stopTimer(Metrics.LOAD_POST, phase);
+    }
+
+    // Replace the in-memory series and recompute every moving average
+    private void resetSeries(WeightSeries loaded) {
+        parkLoadedUser(loaded.getUserId());
+        cache.invalidate(loaded.getUserId()); // superseded by what was just read
+        loadedUserId = loaded.getUserId();
+        series = loaded;
+        averages = TimeWindowAverage.calculate(series.epochDayColumn(), series.weightColumn(), series.size(),
+                averageWindowDays, averageGapMode);
+        trend.rebuild(series.view());
+    }
+
+    // Make a parked user current again; averages are only recomputed if the window changed since
+    private void restoreSeries(SeriesCache.Entry parked) {
+        parkLoadedUser(parked.getUserId());
+        loadedUserId = parked.getUserId();
+        series = parked.series;
+        trend = parked.trend;
+        if (parked.averageWindowDays == averageWindowDays && parked.averageGapMode == averageGapMode) {
+            averages = parked.averages;
+            averagesShared = averages.length; // an older snapshot may still hold it
+        } else {
+            averages = TimeWindowAverage.calculate(series.epochDayColumn(), series.weightColumn(), series.size(),
+                    averageWindowDays, averageGapMode);
+        }
+    }
+
+    // Hand the current user's state to the cache before another user replaces it
+    private void parkLoadedUser(long nextUserId) {
+        if (loadedUserId == -1 || loadedUserId == nextUserId) return;
+        cache.put(new SeriesCache.Entry(series, averages, averageWindowDays, averageGapMode, trend));
+        trend = new TrendAnalyzer(TREND_HALF_LIFE_DAYS, TREND_WINDOW_DAYS);
+    }
+
+    // Post immutable snapshots of the series and its averages. Both share the live columns
+    // (copy-on-write: the next edit that would overwrite a published row copies first), and
+    // WeightEntry objects are only built when the legacy list is read.
+    private void publishSeries() {
+        int n = series.size();
+        WeightSeries.View snapshot = series.snapshot();
+        seriesLiveData.postValue(snapshot);
+        weightEntriesLiveData.postValue(snapshot.asEntryList());
+        averagesShared = n;
+        movingAverageLiveData.postValue(new DoubleListView(averages, n));
+        trendLiveData.postValue(trend.snapshot());
+    }
+
+    // Make averages[from...] writable with room for 'capacity' values
+    private void prepareAverages(int from, int capacity) {
+        if (averages.length < capacity) {
+            averages = Arrays.copyOf(averages, Math.max(capacity, averages.length + (averages.length >> 1)));
+            averagesShared = 0;
+        } else if (from < averagesShared) {
+            averages = averages.clone();
+            averagesShared = 0;
+        }
+    }
+
+    // Insert a new weight entry and splice it into the loaded series
+    public boolean insertWeight(WeightEntry entry) {
+        long id = dbHelper.addWeightAndGetId(entry.getUserId(), entry.getDate(), entry.getWeight(), entry.getGoal());
+        if (id == -1) return false;
+        spliceInserted(new WeightEntry(id, entry.getUserId(), entry.getDate(), entry.getWeight(), entry.getGoal()));
+        return true;
+    }
+
+    // Only the loaded user is spliced; anyone else's parked state is dropped, never loaded
+    private synchronized void spliceInserted(WeightEntry stored) {
+        if (stored.getUserId() != loadedUserId) {
+            cache.invalidate(stored.getUserId());
+            return;
+        }
+
+        long id = stored.getId();
+        int day = IsoDate.toEpochDay(stored.getDate());
+        if (indexOf(id, day) != -1) return; // a reload already picked it up
+        int n = series.size();
+        // Same-day rows stay in id order, even if writes from two threads splice out of order
+        int position = WeightUtils.upperBound(series.epochDayColumn(), 0, n, day);
+        while (position > 0 && series.getEpochDay(position - 1) == day && series.getId(position - 1) > id) {
+            position--;
+        }
+
+        series.insert(position, id, day, stored.getWeight(),
+                stored.getGoal() != null ? stored.getGoal() : WeightSeries.NO_GOAL);
+        prepareAverages(position, n + 1);
+        System.arraycopy(averages, position, averages, position + 1, n - position);
+
+        int nextDay = position + 1 <= n ? series.getEpochDay(position + 1) : day;
+        int to = recomputeAverages(position, nextDay);
+        if (position == n) {
+            trend.add(day, series.getWeight(position), series.getGoal(position)); // the common case: O(1)
+        } else {
+            trend.rebuild(series.view()); // back-dated entry: replay
+        }
+        publishDelta(new WeightDelta(WeightDelta.Type.INSERTED, position, stored, position, to));
+    }
+
+    // Remove a weight entry and splice it out of the loaded series
+    public boolean removeWeight(long weightId, long userId) {
+        String date = dbHelper.getWeightDate(weightId);
+        if (!dbHelper.deleteWeight(weightId)) return false;
+        spliceRemoved(weightId, userId, date);
+        return true;
+    }
+
+    private synchronized void spliceRemoved(long weightId, long userId, String date) {
+        if (userId != loadedUserId || date == null) {
+            reloadIfLoaded(userId);
+            return;
+        }
+        int position = indexOf(weightId, IsoDate.toEpochDay(date));
+        if (position == -1) return; // a reload already dropped it
+
+        int n = series.size();
+        int day = series.getEpochDay(position);
+        WeightEntry removed = series.toEntry(position);
+        series.remove(position);
+        prepareAverages(position, n);
+        System.arraycopy(averages, position + 1, averages, position, n - position - 1);
+
+        int nextDay = position < n - 1 ? series.getEpochDay(position) : day;
+        int to = recomputeAverages(position, nextDay);
+        trend.rebuild(series.view());
+        publishDelta(new WeightDelta(WeightDelta.Type.REMOVED, position, removed, position, to));
+    }
+
+    // Queue an insert or delete on the write-behind buffer; writes arriving together are
+    // committed in one transaction followed by a single reload. The future reports this write.
+    public CompletableFuture<Boolean> queueInsert(WeightEntry entry) {
+        return writeQueue.insert(entry);
+    }
+
+    public CompletableFuture<Boolean> queueRemove(long weightId, long userId) {
+        return writeQueue.delete(weightId, userId);
+    }
+
+    // Applies one flushed batch in queue order. A lone write keeps the incremental splice;
+    // a larger batch goes through one transaction and then reloads the loaded user once.
+    // Either way a write for another user only invalidates that user's cached state.
+    private boolean[] applyWrites(List<WeightWriteQueue.Write> writes) {
+        boolean[] applied = new boolean[writes.size()];
+        if (writes.size() == 1) {
+            WeightWriteQueue.Write write = writes.get(0);
+            applied[0] = write.isDelete() ? removeWeight(write.getWeightId(), write.getUserId())
+                    : insertWeight(write.getEntry());
+            return applied;
+        }
+
+        dbHelper.applyWeightBatch(writes, applied); // in queue order, one transaction
+        synchronized (this) {
+            boolean reload = false;
+            for (int i = 0; i < writes.size(); i++) {
+                if (!applied[i]) continue;
+                long userId = writes.get(i).getUserId();
+                if (userId == loadedUserId) {
+                    reload = true;
+                } else {
+                    cache.invalidate(userId);
+                }
             }
-            cursor.close();
+            if (reload) loadWeightsFromDb(loadedUserId);
         }
+        return applied;
+    }
 
-        // Sort by date ascending (ISO date string comparison)
-        Collections.sort(weights, Comparator.comparing(WeightEntry::getDate));
+    // Stream a CSV or JSON import for the user in committed chunks. Runs on the shared write
+    // thread, in line with every other write, and completes with the import totals once the
+    // loaded user has been reloaded (another user's parked state is only invalidated).
+    public CompletableFuture<WeightImporter.ImportStats> importWeights(long userId, Reader input, boolean json,
+                                                                       int chunkSize,
+                                                                       WeightImporter.ProgressListener listener) {
+        CompletableFuture<WeightImporter.ImportStats> result = new CompletableFuture<>();
+        AppExecutors.databaseWrite().execute(() -> {
+            WeightImporter importer = new WeightImporter(dbHelper, userId, chunkSize, listener);
+            try {
+                WeightImporter.ImportStats stats = json ? importer.importJson(input) : importer.importCsv(input);
+                reloadIfLoaded(userId);
+                result.complete(stats);
+            } catch (IOException | RuntimeException e) {
+                reloadIfLoaded(userId); // chunks before the failure stay committed
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
 
-        weightEntriesLiveData.postValue(weights);
+    // After rows of a user changed outside the splice path: reload them if they are on
+    // screen, otherwise drop their parked state so it is read afresh when they come back
+    private synchronized void reloadIfLoaded(long userId) {
+        if (userId == loadedUserId) {
+            loadWeightsFromDb(userId);
+        } else {
+            cache.invalidate(userId);
+        }
+    }
 
-        // Calculate and post moving average with window of 7 days
-        List<Double> averages = calculateMovingAverage(weights, 7);
-        movingAverageLiveData.postValue(averages);
+    // Stream the user's full history to 'out' as CSV or JSON, optionally gzipped. Runs on
+    // the calling thread without the repository lock: it only reads, and WAL lets writes go on.
+    public long exportWeights(long userId, OutputStream out, WeightExporter.Format format, boolean gzip,
+                              WeightExporter.ProgressListener listener) throws IOException {
+        return new WeightExporter(dbHelper, listener).exportTo(userId, out, format, gzip);
     }
 
-    // Insert a new weight entry and reload data
-    public void insertWeight(WeightEntry entry) {
-        dbHelper.addWeight(entry.getUserId(), entry.getDate(), entry.getWeight(), entry.getGoal());
-        loadWeightsFromDb(entry.getUserId());
+    // Position of the entry with this id among the entries logged on 'day', or -1
+    private int indexOf(long weightId, int day) {
+        int n = series.size();
+        for (int i = WeightUtils.lowerBound(series.epochDayColumn(), 0, n, day);
+             i < n && series.getEpochDay(i) == day; i++) {
+            if (series.getId(i) == weightId) return i;
+        }
+        return -1;
     }
 
-    // Remove a weight entry and reload data
-    public void removeWeight(long weightId, long userId) {
-        dbHelper.deleteWeight(weightId);
-        loadWeightsFromDb(userId);
+    // Averages only depend on entries at or before their own position, so a change at
+    // 'position' can only affect entries from there up to the window after the next
+    // logged day (the next day bounds interpolation and clamping changes).
+    private int recomputeAverages(int position, int nextDay) {
+        int n = series.size();
+        int to = WeightUtils.upperBound(series.epochDayColumn(), position, n, nextDay + averageWindowDays - 1);
+        TimeWindowAverage.calculateRange(series.epochDayColumn(), series.weightColumn(), n,
+                averageWindowDays, averageGapMode, averages, position, to);
+        return to;
+    }
+
+    private void publishDelta(WeightDelta delta) {
+        publishSeries();
+        deltaLiveData.postValue(delta);
     }
 
     // Binary search for weight entry by date in sorted list
@@ -105,33 +441,52 @@ public class WeightRepository {
         return null; // Not found
     }
 
+    // Latest entry on or before the date in a sorted list, or null
+    public WeightEntry findWeightOnOrBefore(List<WeightEntry> entries, String targetDate) {
+        return WeightUtils.floorEntryByDate(entries, targetDate);
+    }
+
+    // Earliest entry on or after the date in a sorted list, or null
+    public WeightEntry findWeightOnOrAfter(List<WeightEntry> entries, String targetDate) {
+        return WeightUtils.ceilingEntryByDate(entries, targetDate);
+    }
+
     // Calculate moving average over a sliding window of 'days' on weight entries
     public List<Double> calculateMovingAverage(List<WeightEntry> entries, int days) {
-        List<Double> averages = new ArrayList<>();
+        return WeightUtils.calculateMovingAverageList(entries, days);
+    }
 
-        if (entries.size() < days) {
-            // Not enough entries to calculate moving average
-            return averages;
-        }
+    // Calculate moving average over the last 'days' calendar days of each entry
+    public List<Double> calculateCalendarMovingAverage(List<WeightEntry> entries, int days,
+                                                       TimeWindowAverage.GapMode gapMode) {
+        return WeightUtils.toDoubleList(TimeWindowAverage.calculate(entries, days, gapMode));
+    }
 
-        for (int i = days - 1; i < entries.size(); i++) {
-            double sum = 0;
-            for (int j = 0; j < days; j++) {
-                sum += entries.get(i - j).getWeight();
+    // Weekly or monthly statistics for periods starting in [fromDay, toDay), read from the
+    // rollup tables so the cost depends on the number of periods, not of entries
+    public List<PeriodStats> getPeriodStats(long userId, PeriodStats.Period period, int fromDay, int toDay) {
+        List<PeriodStats> stats = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getRollups(userId, period, fromDay, toDay)) {
+            while (cursor.moveToNext()) {
+                stats.add(new PeriodStats(period, cursor.getInt(0), cursor.getLong(1), cursor.getDouble(2),
+                        cursor.getDouble(3), cursor.getDouble(4), cursor.getDouble(5)));
             }
-            averages.add(sum / days);
+        } catch (SQLException e) {
+            Log.e(TAG, "Error reading rollups: " + e.getMessage());
         }
-
-        return averages;
+        return stats;
     }
 
     // Delete a user and all their weights
     public boolean deleteUserAndWeights(long userId) {
-        return dbHelper.deleteUserAndWeights(userId);
-    }
-
-    // Close database helper resources
-    public void close() {
-        dbHelper.close();
+        if (!dbHelper.deleteUserAndWeights(userId)) return false;
+        synchronized (this) {
+            cache.invalidate(userId);
+            if (userId == loadedUserId) {
+                resetSeries(new WeightSeries(userId));
+                publishSeries();
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,132 @@
+package com.example.weighttracker.data;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.utils.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind buffer for weight inserts and deletes. Writes submitted within a short
+// window (or until the batch is full) are handed to the Applier together, so a burst of
+// N writes costs one transaction and one reload instead of N of each. Every write still
+// gets its own future, completed with whether that write was applied.
+public class WeightWriteQueue {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 30;
+    public static final int DEFAULT_MAX_BATCH = 64;
+
+    public interface Applier {
+        // Apply the writes in order; returns one outcome per write
+        boolean[] apply(List<Write> writes);
+    }
+
+    public static final class Write {
+        private final WeightEntry entry; // null for a delete
+        private final long weightId;
+        private final long userId;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Write(WeightEntry entry, long weightId, long userId) {
+            this.entry = entry;
+            this.weightId = weightId;
+            this.userId = userId;
+        }
+
+        public boolean isDelete() {
+            return entry == null;
+        }
+
+        public WeightEntry getEntry() {
+            return entry;
+        }
+
+        public long getWeightId() {
+            return weightId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+    }
+
+    private final Applier applier;
+    private final ScheduledExecutorService executor;
+    private final long windowMillis;
+    private final int maxBatch;
+
+    // Guarded by 'this'
+    private List<Write> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public WeightWriteQueue(Applier applier, ScheduledExecutorService executor) {
+        this(applier, executor, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH);
+    }
+
+    public WeightWriteQueue(Applier applier, ScheduledExecutorService executor, long windowMillis, int maxBatch) {
+        if (maxBatch < 1) throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+        this.applier = applier;
+        this.executor = executor;
+        this.windowMillis = windowMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    public CompletableFuture<Boolean> insert(WeightEntry entry) {
+        return enqueue(new Write(entry, -1, entry.getUserId()));
+    }
+
+    public CompletableFuture<Boolean> delete(long weightId, long userId) {
+        return enqueue(new Write(null, weightId, userId));
+    }
+
+    private CompletableFuture<Boolean> enqueue(Write write) {
+        synchronized (this) {
+            pending.add(write);
+            if (pending.size() >= maxBatch) {
+                cancelScheduledFlush();
+                executor.execute(this::flush);
+            } else if (scheduledFlush == null) {
+                // The first write of a batch opens the window; later ones ride along
+                scheduledFlush = executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return write.result;
+    }
+
+    // Apply everything queued so far on the calling thread
+    public void flush() {
+        List<Write> batch;
+        synchronized (this) {
+            cancelScheduledFlush();
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        Metrics.record(Metrics.WRITE_BATCH_SIZE, batch.size());
+        try {
+            boolean[] applied = applier.apply(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(applied[i]);
+            }
+        } catch (RuntimeException e) {
+            for (Write write : batch) {
+                write.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
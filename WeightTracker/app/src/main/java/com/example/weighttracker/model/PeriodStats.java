@@ -0,0 +1,77 @@
+package com.example.weighttracker.model;
+
+// Aggregate of one user's weights over one calendar period (ISO week or month),
+// as stored in the rollup tables: count, sum, sum of squares, min and max.
+public class PeriodStats {
+
+    public enum Period { WEEK, MONTH }
+
+    private final Period period;
+    private final int startDay; // epoch day of the Monday / first of the month
+    private final long count;
+    private final double sum;
+    private final double sumOfSquares;
+    private final double min;
+    private final double max;
+
+    public PeriodStats(Period period, int startDay, long count, double sum, double sumOfSquares,
+                       double min, double max) {
+        this.period = period;
+        this.startDay = startDay;
+        this.count = count;
+        this.sum = sum;
+        this.sumOfSquares = sumOfSquares;
+        this.min = min;
+        this.max = max;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    public int getStartDay() {
+        return startDay;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    // Population variance from the running sums; clamped at 0 against rounding
+    public double getVariance() {
+        if (count == 0) return Double.NaN;
+        double mean = sum / count;
+        return Math.max(0, sumOfSquares / count - mean * mean);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    // Combine two aggregates (e.g. weeks into a longer span)
+    public PeriodStats merge(PeriodStats other) {
+        return new PeriodStats(period, Math.min(startDay, other.startDay), count + other.count,
+                sum + other.sum, sumOfSquares + other.sumOfSquares,
+                Math.min(min, other.min), Math.max(max, other.max));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.weighttracker.model;
+
+// Describes a single change spliced into the in-memory weight series:
+// the entry that was inserted or removed, its position in the sorted list,
+// and the range of moving averages [averagesFrom, averagesTo) that were recomputed.
+public class WeightDelta {
+    public enum Type { INSERTED, REMOVED }
+
+    private final Type type;
+    private final int position;
+    private final WeightEntry entry;
+    private final int averagesFrom;
+    private final int averagesTo;
+
+    public WeightDelta(Type type, int position, WeightEntry entry, int averagesFrom, int averagesTo) {
+        this.type = type;
+        this.position = position;
+        this.entry = entry;
+        this.averagesFrom = averagesFrom;
+        this.averagesTo = averagesTo;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public WeightEntry getEntry() {
+        return entry;
+    }
+
+    public int getAveragesFrom() {
+        return averagesFrom;
+    }
+
+    public int getAveragesTo() {
+        return averagesTo;
+    }
+}
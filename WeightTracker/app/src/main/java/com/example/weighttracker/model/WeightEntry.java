@@ -1,18 +1,28 @@
 package com.example.weighttracker.model;
 
 public class WeightEntry {
+    private long id; // weight_id, -1 until stored
     private long userId;
     private String date;
     private double weight;
     private Double goal; // optional
 
     public WeightEntry(long userId, String date, double weight, Double goal) {
+        this(-1, userId, date, weight, goal);
+    }
+
+    public WeightEntry(long id, long userId, String date, double weight, Double goal) {
+        this.id = id;
         this.userId = userId;
         this.date = date;
         this.weight = weight;
         this.goal = goal;
     }
 
+    public long getId() {
+        return id;
+    }
+
     public long getUserId() {
         return userId;
     }
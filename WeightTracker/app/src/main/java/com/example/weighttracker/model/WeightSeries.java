@@ -0,0 +1,334 @@
+package com.example.weighttracker.model;
+
+import com.example.weighttracker.utils.IsoDate;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Columnar store for one user's weight history: parallel primitive arrays instead of
+// one WeightEntry (plus a boxed goal and a date String) per row.
+// A missing goal is stored as NO_GOAL (NaN).
+public class WeightSeries {
+
+    public static final double NO_GOAL = Double.NaN;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final long userId;
+    private long[] ids;
+    private int[] epochDays;
+    private double[] weights;
+    private double[] goals;
+    private int size;
+    // Rows [0, shared) are visible through a published snapshot; writing to them copies first
+    private int shared;
+
+    public WeightSeries(long userId) {
+        this(userId, DEFAULT_CAPACITY);
+    }
+
+    public WeightSeries(long userId, int initialCapacity) {
+        this.userId = userId;
+        int capacity = Math.max(1, initialCapacity);
+        ids = new long[capacity];
+        epochDays = new int[capacity];
+        weights = new double[capacity];
+        goals = new double[capacity];
+    }
+
+    // Build a series from entries that are already sorted by date
+    public static WeightSeries fromEntries(long userId, List<WeightEntry> entries) {
+        WeightSeries series = new WeightSeries(userId, entries.size());
+        for (WeightEntry entry : entries) {
+            series.add(entry.getId(), IsoDate.toEpochDay(entry.getDate()), entry.getWeight(),
+                    entry.getGoal() != null ? entry.getGoal() : NO_GOAL);
+        }
+        return series;
+    }
+
+    // Wrap already filled, date-sorted columns without copying; the series owns them from now on
+    public static WeightSeries fromColumns(long userId, long[] ids, int[] epochDays, double[] weights,
+                                           double[] goals, int size) {
+        if (epochDays.length != ids.length || weights.length != ids.length || goals.length != ids.length
+                || size > ids.length) {
+            throw new IllegalArgumentException("Column lengths differ or are shorter than " + size);
+        }
+        WeightSeries series = new WeightSeries(userId, 1);
+        series.ids = ids;
+        series.epochDays = epochDays;
+        series.weights = weights;
+        series.goals = goals;
+        series.size = size;
+        return series;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    public double getGoal(int index) {
+        return goals[index];
+    }
+
+    public boolean hasGoal(int index) {
+        return !Double.isNaN(goals[index]);
+    }
+
+    // Append a row; callers keep rows in date order
+    public void add(long id, int epochDay, double weight, double goal) {
+        if (size < shared) unshare(size + 1);
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        epochDays[size] = epochDay;
+        weights[size] = weight;
+        goals[size] = goal;
+        size++;
+    }
+
+    // Insert a row at 'index', shifting later rows right
+    public void insert(int index, long id, int epochDay, double weight, double goal) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        if (index < shared || size == ids.length) {
+            // Shared or full: move into fresh columns, leaving the gap in the same pass
+            int capacity = size < ids.length ? ids.length : Math.max(size + 1, ids.length + (ids.length >> 1));
+            ids = splice(ids, new long[capacity], index, size, 1);
+            epochDays = splice(epochDays, new int[capacity], index, size, 1);
+            weights = splice(weights, new double[capacity], index, size, 1);
+            goals = splice(goals, new double[capacity], index, size, 1);
+            shared = 0;
+        } else {
+            int tail = size - index;
+            System.arraycopy(ids, index, ids, index + 1, tail);
+            System.arraycopy(epochDays, index, epochDays, index + 1, tail);
+            System.arraycopy(weights, index, weights, index + 1, tail);
+            System.arraycopy(goals, index, goals, index + 1, tail);
+        }
+        ids[index] = id;
+        epochDays[index] = epochDay;
+        weights[index] = weight;
+        goals[index] = goal;
+        size++;
+    }
+
+    // Remove the row at 'index', shifting later rows left
+    public void remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        if (index < shared && index < size - 1) {
+            ids = splice(ids, new long[ids.length], index + 1, size, -1);
+            epochDays = splice(epochDays, new int[ids.length], index + 1, size, -1);
+            weights = splice(weights, new double[ids.length], index + 1, size, -1);
+            goals = splice(goals, new double[ids.length], index + 1, size, -1);
+            shared = 0;
+        } else {
+            int tail = size - index - 1;
+            System.arraycopy(ids, index + 1, ids, index, tail);
+            System.arraycopy(epochDays, index + 1, epochDays, index, tail);
+            System.arraycopy(weights, index + 1, weights, index, tail);
+            System.arraycopy(goals, index + 1, goals, index, tail);
+        }
+        size--;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Copy the rows of [0, 'at') to 'to' as they are and the rest shifted by 'shift'
+    private static <A> A splice(A from, A to, int at, int size, int shift) {
+        System.arraycopy(from, 0, to, 0, Math.min(at, at + shift));
+        System.arraycopy(from, at, to, at + shift, size - at);
+        return to;
+    }
+
+    // Give this series columns of its own before overwriting rows a snapshot can still see
+    private void unshare(int capacity) {
+        int grown = Math.max(capacity, ids.length);
+        ids = Arrays.copyOf(ids, grown);
+        epochDays = Arrays.copyOf(epochDays, grown);
+        weights = Arrays.copyOf(weights, grown);
+        goals = Arrays.copyOf(goals, grown);
+        shared = 0;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        epochDays = Arrays.copyOf(epochDays, grown);
+        weights = Arrays.copyOf(weights, grown);
+        goals = Arrays.copyOf(goals, grown);
+        shared = 0;
+    }
+
+    // Backing columns for bulk algorithms; only [0, size()) is meaningful
+    public int[] epochDayColumn() {
+        return epochDays;
+    }
+
+    public double[] weightColumn() {
+        return weights;
+    }
+
+    // Compact copy that shares nothing with this series
+    public WeightSeries copy() {
+        WeightSeries copy = new WeightSeries(userId, size);
+        System.arraycopy(ids, 0, copy.ids, 0, size);
+        System.arraycopy(epochDays, 0, copy.epochDays, 0, size);
+        System.arraycopy(weights, 0, copy.weights, 0, size);
+        System.arraycopy(goals, 0, copy.goals, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    public WeightEntry toEntry(int index) {
+        return new WeightEntry(ids[index], userId, IsoDate.format(epochDays[index]), weights[index],
+                hasGoal(index) ? goals[index] : null);
+    }
+
+    // Zero-copy view of every current row to hand to other threads: the series copies its
+    // columns on the next write that would land in them, so the view never changes
+    public View snapshot() {
+        shared = size;
+        return view();
+    }
+
+    // Zero-copy view of every current row
+    public View view() {
+        return new View(this, 0, size);
+    }
+
+    // Zero-copy view of rows [from, to)
+    public View view(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + size);
+        }
+        return new View(this, from, to);
+    }
+
+    // Read-only window over a series' columns. It captures the arrays and bounds at
+    // creation, so appends to an append-only series never disturb an existing view;
+    // in-place inserts or removes do, so publish snapshot() for series that splice.
+    public static final class View {
+        private final long userId;
+        private final long[] ids;
+        private final int[] epochDays;
+        private final double[] weights;
+        private final double[] goals;
+        private final int offset;
+        private final int length;
+
+        private View(WeightSeries series, int from, int to) {
+            this(series.userId, series.ids, series.epochDays, series.weights, series.goals, from, to - from);
+        }
+
+        private View(long userId, long[] ids, int[] epochDays, double[] weights, double[] goals,
+                     int offset, int length) {
+            this.userId = userId;
+            this.ids = ids;
+            this.epochDays = epochDays;
+            this.weights = weights;
+            this.goals = goals;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public int size() {
+            return length;
+        }
+
+        public long getId(int index) {
+            return ids[offset + index];
+        }
+
+        public int getEpochDay(int index) {
+            return epochDays[offset + index];
+        }
+
+        public double getWeight(int index) {
+            return weights[offset + index];
+        }
+
+        public double getGoal(int index) {
+            return goals[offset + index];
+        }
+
+        public boolean hasGoal(int index) {
+            return !Double.isNaN(goals[offset + index]);
+        }
+
+        public WeightEntry toEntry(int index) {
+            int i = offset + index;
+            return new WeightEntry(ids[i], userId, IsoDate.format(epochDays[i]), weights[i],
+                    Double.isNaN(goals[i]) ? null : goals[i]);
+        }
+
+        // Zero-copy view of rows [from, to) of this view
+        public View subView(int from, int to) {
+            if (from < 0 || to > length || from > to) {
+                throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + length);
+            }
+            return new View(userId, ids, epochDays, weights, goals, offset + from, to - from);
+        }
+
+        // Epoch days / weights of this view as arrays starting at index 0.
+        // Shares the backing column when the view starts at row 0.
+        public int[] epochDays() {
+            return offset == 0 ? epochDays : Arrays.copyOfRange(epochDays, offset, offset + length);
+        }
+
+        public double[] weights() {
+            return offset == 0 ? weights : Arrays.copyOfRange(weights, offset, offset + length);
+        }
+
+        // List<WeightEntry> facade for older callers; entries are built on access
+        public List<WeightEntry> asEntryList() {
+            return new EntryList(this);
+        }
+    }
+
+    private static final class EntryList extends AbstractList<WeightEntry> implements RandomAccess {
+        private final View view;
+
+        EntryList(View view) {
+            this.view = view;
+        }
+
+        @Override
+        public WeightEntry get(int index) {
+            if (index < 0 || index >= view.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + view.size());
+            }
+            return view.toEntry(index);
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+    }
+}
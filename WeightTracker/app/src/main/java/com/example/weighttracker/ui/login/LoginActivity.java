@@ -9,33 +9,37 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.weighttracker.ui.main.MainActivity;
 import com.example.weighttracker.R;
+import com.example.weighttracker.data.AuthService;
 import com.example.weighttracker.data.DatabaseHelper;
 import com.google.android.material.textfield.TextInputLayout;
 
 public class LoginActivity extends AppCompatActivity {
     private EditText etUsername, etPassword;
     private TextInputLayout passwordLayout;
-    private DatabaseHelper dbHelper;
+    private Button btnLogin, btnRegister;
+    private LoginViewModel loginViewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        dbHelper = new DatabaseHelper(this);
+        loginViewModel = new ViewModelProvider(this).get(LoginViewModel.class);
         initializeViews();
         setupPasswordValidation();
+        observeAuthentication();
     }
 
     private void initializeViews() {
         etUsername = findViewById(R.id.et_username);
         etPassword = findViewById(R.id.et_password);
         passwordLayout = findViewById(R.id.passwordLayout);
-        Button btnLogin = findViewById(R.id.btn_login);
-        Button btnRegister = findViewById(R.id.btn_register);
+        btnLogin = findViewById(R.id.btn_login);
+        btnRegister = findViewById(R.id.btn_register);
 
         btnLogin.setOnClickListener(v -> handleLogin());
         btnRegister.setOnClickListener(v -> handleRegistration());
@@ -63,22 +67,48 @@ public class LoginActivity extends AppCompatActivity {
         });
     }
 
+    // Password hashing runs in LoginViewModel; results come back here
+    private void observeAuthentication() {
+        loginViewModel.isInProgress().observe(this, busy -> {
+            btnLogin.setEnabled(!busy);
+            btnRegister.setEnabled(!busy);
+        });
+
+        loginViewModel.getAuthState().observe(this, state -> {
+            if (state == null) return;
+            loginViewModel.onAuthStateHandled();
+
+            AuthService.Result result = state.getResult();
+            if (result == AuthService.Result.BUSY) {
+                showToast("Please wait and try again");
+            } else if (state.getAction() == LoginViewModel.Action.LOGIN) {
+                if (result == AuthService.Result.SUCCESS) {
+                    startMainActivity(state.getUserId(), state.getUsername());
+                } else if (result == AuthService.Result.INVALID_CREDENTIALS) {
+                    showToast("Invalid credentials");
+                } else {
+                    showToast("Login error. Try again.");
+                }
+            } else {
+                if (result == AuthService.Result.SUCCESS) {
+                    showToast("Registration successful! Please login");
+                    etPassword.setText(""); // Clear password field
+                } else if (result == AuthService.Result.REGISTRATION_FAILED) {
+                    showToast("Registration failed. Username may exist");
+                } else {
+                    showToast("Registration error. Try again.");
+                }
+            }
+        });
+    }
+
     private void handleLogin() {
         String username = etUsername.getText().toString().trim();
         String password = etPassword.getText().toString().trim();
 
         if (!validateInputs(username, password)) return;
 
-        try {
-            if (dbHelper.validateUser(username, password)) {
-                long userId = dbHelper.getUserId(username);
-                startMainActivity(userId, username);
-            } else {
-                showToast("Invalid credentials");
-            }
-        } catch (Exception e) {
-            showToast("Login error. Try again.");
-        }
+        loginViewModel.login(username, password);
     }
 
     private void startMainActivity(long userId, String username) {
@@ -95,16 +125,7 @@ public class LoginActivity extends AppCompatActivity {
 
         if (!validateInputs(username, password)) return;
 
-        try {
-            if (dbHelper.addUser(username, password)) {
-                showToast("Registration successful! Please login");
-                etPassword.setText(""); // Clear password field
-            } else {
-                showToast("Registration failed. Username may exist");
-            }
-        } catch (Exception e) {
-            showToast("Registration error: " + e.getMessage());
-        }
+        loginViewModel.register(username, password);
     }
 
     private boolean validateInputs(String username, String password) {
@@ -122,10 +143,4 @@ public class LoginActivity extends AppCompatActivity {
     private void showToast(String message) {
         Toast.makeText(this, message, Toast.LENGTH_LONG).show();
     }
-
-    @Override
-    protected void onDestroy() {
-        dbHelper.close();
-        super.onDestroy();
-    }
 }
\ No newline at end of file
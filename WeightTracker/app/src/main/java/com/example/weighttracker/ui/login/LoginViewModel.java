@@ -1,7 +1,112 @@
 package com.example.weighttracker.ui.login;
 
-import androidx.lifecycle.ViewModel;
+import android.app.Application;
 
-public class LoginViewModel extends ViewModel {
-    // TODO: Add login logic here later
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.weighttracker.data.AuthService;
+import com.example.weighttracker.data.DatabaseHelper;
+
+// Owns the login/registration work so it survives rotation and never runs on the UI thread
+public class LoginViewModel extends AndroidViewModel {
+
+    public enum Action { LOGIN, REGISTER }
+
+    // Outcome of one login or registration attempt
+    public static class AuthState {
+        private final Action action;
+        private final AuthService.Result result;
+        private final long userId;
+        private final String username;
+
+        AuthState(Action action, AuthService.Result result, long userId, String username) {
+            this.action = action;
+            this.result = result;
+            this.userId = userId;
+            this.username = username;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public AuthService.Result getResult() {
+            return result;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final AuthService authService;
+    private final MutableLiveData<AuthState> authState = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> inProgress = new MutableLiveData<>(false);
+    private int requestGeneration;
+
+    public LoginViewModel(@NonNull Application application) {
+        super(application);
+        dbHelper = DatabaseHelper.getInstance(application);
+        authService = new AuthService(application.getApplicationContext(), dbHelper);
+        authService.calibrate();
+    }
+
+    public LiveData<AuthState> getAuthState() {
+        return authState;
+    }
+
+    public LiveData<Boolean> isInProgress() {
+        return inProgress;
+    }
+
+    // Call once the UI has acted on a state so it is not replayed after rotation
+    public void onAuthStateHandled() {
+        authState.setValue(null);
+    }
+
+    public void login(String username, String password) {
+        int generation = begin();
+        authService.login(username, password, (result, userId) ->
+                complete(generation, new AuthState(Action.LOGIN, result, userId, username)));
+    }
+
+    public void register(String username, String password) {
+        int generation = begin();
+        authService.register(username, password, (result, userId) ->
+                complete(generation, new AuthState(Action.REGISTER, result, userId, username)));
+    }
+
+    // Abandon the attempt in progress, e.g. when the user leaves the screen
+    public synchronized void cancel() {
+        requestGeneration++;
+        authService.cancel();
+        inProgress.postValue(false);
+    }
+
+    private synchronized int begin() {
+        inProgress.setValue(true);
+        return ++requestGeneration;
+    }
+
+    // Results of a superseded or cancelled attempt are dropped
+    private synchronized void complete(int generation, AuthState state) {
+        if (generation != requestGeneration) return;
+        inProgress.postValue(false);
+        authState.postValue(state);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancel(); // results arriving from now on have no screen to go to
+        authService.shutdown(); // the shared database stays open
+    }
 }
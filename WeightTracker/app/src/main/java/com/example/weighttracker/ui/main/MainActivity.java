@@ -14,6 +14,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weighttracker.R;
 import com.example.weighttracker.adapter.WeightAdapter;
+import com.example.weighttracker.data.WeightPager;
 import com.example.weighttracker.model.WeightEntry;
 import com.example.weighttracker.ui.main.MainViewModel;
 
@@ -51,13 +52,15 @@ public class MainActivity extends AppCompatActivity {
 
         weightViewModel = new ViewModelProvider(this).get(MainViewModel.class);
 
-        // Observe weight entries
-        weightViewModel.getWeightEntries(currentUserId).observe(this, entries -> {
-            weightAdapter.setWeightList(entries);
+        // The list shows keyset pages, loaded as the user scrolls
+        WeightPager pager = weightViewModel.getWeightPager(currentUserId);
+        weightAdapter.setPager(pager);
+        pager.getItems().observe(this, entries -> {
+            weightAdapter.setWeightSeries(entries);
         });
 
         // Observe 7-day moving average values
-        weightViewModel.getMovingAverage().observe(this, averages -> {
+        weightViewModel.getMovingAverage(currentUserId).observe(this, averages -> {
             if (averages == null || averages.isEmpty()) {
                 tvMovingAverage.setText("7-Day Moving Average: N/A");
             } else {
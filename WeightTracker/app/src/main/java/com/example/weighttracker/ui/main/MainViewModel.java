@@ -5,43 +5,107 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
 
+import com.example.weighttracker.data.AppExecutors;
+import com.example.weighttracker.data.WeightPager;
 import com.example.weighttracker.data.WeightRepository;
+import com.example.weighttracker.model.PeriodStats;
+import com.example.weighttracker.model.WeightDelta;
 import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.utils.Downsampler;
+import com.example.weighttracker.utils.TrendAnalyzer;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainViewModel extends AndroidViewModel {
 
     private final WeightRepository repository;
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final ExecutorService executorService = AppExecutors.databaseWrite(); // shared, not owned
+    private volatile WeightPager pager; // refreshed from the write thread
 
     public MainViewModel(@NonNull Application application) {
         super(application);
-        repository = new WeightRepository(application.getApplicationContext());
+        repository = WeightRepository.getInstance(application);
     }
 
-    public LiveData<List<WeightEntry>> getWeightEntries(long userId) {
-        return repository.getWeightsForUser(userId);
+    // Paged view of the user's entries (newest first), loaded as the list scrolls and
+    // refreshed when one of this screen's writes is applied
+    public WeightPager getWeightPager(long userId) {
+        if (pager == null || pager.getUserId() != userId) {
+            pager = repository.createPager(userId, AppExecutors.databaseRead());
+            pager.loadNextPage();
+        }
+        return pager;
     }
 
-    // ✅ Expose moving average LiveData
-    public LiveData<List<Double>> getMovingAverage() {
-        return repository.getMovingAverage();
+    // ✅ Expose moving average LiveData. Averages, trend and chart span the whole history,
+    // so observing this loads the user's full series into the repository (started lazily
+    // through the entry list, which nothing displays). That series is primitive columns of
+    // a few dozen bytes per entry, so years of history stay small; the list reads pages.
+    public LiveData<List<Double>> getMovingAverage(long userId) {
+        MediatorLiveData<List<Double>> averages = new MediatorLiveData<>();
+        averages.addSource(repository.getWeightsForUser(userId), entries -> { });
+        averages.addSource(repository.getMovingAverage(), averages::setValue);
+        return averages;
     }
 
-    public void addWeight(long userId, String date, double weight, Double goal, Runnable callback) {
-        executorService.execute(() -> {
-            repository.insertWeight(new WeightEntry(userId, date, weight, goal));
-            if (callback != null) callback.run();
+    // The loaded history reduced to about 'width' chart points (one per pixel column),
+    // recomputed off the main thread whenever the series changes
+    public LiveData<Downsampler.Points> getChartPoints(int width, Downsampler.Mode mode) {
+        MediatorLiveData<Downsampler.Points> points = new MediatorLiveData<>();
+        AtomicInteger generation = new AtomicInteger();
+        points.addSource(repository.getSeries(), series -> {
+            if (series == null) return;
+            int current = generation.incrementAndGet();
+            // Pure CPU work on an in-memory snapshot: keep it off the database threads
+            AppExecutors.computation().execute(() -> {
+                Downsampler.Points result = Downsampler.downsample(series, width, mode);
+                synchronized (generation) { // check and post together, so a stale result never lands last
+                    if (current == generation.get()) points.postValue(result); // drop superseded results
+                }
+            });
         });
+        return points;
+    }
+
+    // EWMA, slope and projected goal date, updated on every insert
+    public LiveData<TrendAnalyzer.Snapshot> getTrendSnapshot() {
+        return repository.getTrendSnapshot();
+    }
+
+    // Last incremental insert/remove applied to the loaded series
+    public LiveData<WeightDelta> getLastDelta() {
+        return repository.getLastDelta();
+    }
+
+    // Weekly or monthly statistics over the user's whole history, read from the rollup tables
+    public LiveData<List<PeriodStats>> getTrend(long userId, PeriodStats.Period period) {
+        MutableLiveData<List<PeriodStats>> trend = new MutableLiveData<>();
+        AppExecutors.databaseRead().execute(() ->
+                trend.postValue(repository.getPeriodStats(userId, period, Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        return trend;
+    }
+
+    // Queued on the repository's write-behind buffer, so rapid entries share a transaction.
+    // The callback runs on the write thread once this entry is committed (or rejected).
+    public void addWeight(long userId, String date, double weight, Double goal, Runnable callback) {
+        whenWritten(repository.queueInsert(new WeightEntry(userId, date, weight, goal)), callback);
     }
 
     public void deleteWeight(long weightId, long userId, Runnable callback) {
-        executorService.execute(() -> {
-            repository.removeWeight(weightId, userId);
+        whenWritten(repository.queueRemove(weightId, userId), callback);
+    }
+
+    // The loaded pages only go stale when a write lands, so that is the only time they reload
+    private void whenWritten(CompletableFuture<Boolean> result, Runnable callback) {
+        result.whenComplete((applied, error) -> {
+            WeightPager current = pager;
+            if (Boolean.TRUE.equals(applied) && current != null) current.refresh();
             if (callback != null) callback.run();
         });
     }
@@ -52,11 +116,4 @@ public class MainViewModel extends AndroidViewModel {
             if (callback != null) callback.run();
         });
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        repository.close();
-        executorService.shutdown();
-    }
 }
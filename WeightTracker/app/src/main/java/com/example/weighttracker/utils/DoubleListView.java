@@ -0,0 +1,32 @@
+package com.example.weighttracker.utils;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+// Read-only List<Double> over a primitive array, boxing only on get()
+public class DoubleListView extends AbstractList<Double> implements RandomAccess {
+    private final double[] values;
+    private final int length;
+
+    public DoubleListView(double[] values, int length) {
+        this.values = values;
+        this.length = length;
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    public double getDouble(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + length);
+        }
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightSeries;
+
+// Reduces a weight history to about as many points as the chart has pixels, so
+// drawing cost depends on the screen width rather than on how long the user has logged.
+// Both modes make one pass over the series and write into arrays sized from the width.
+//
+// LTTB (Largest-Triangle-Three-Buckets) keeps the visual shape of the line with
+// 'width' points. MIN_MAX keeps the lowest and highest reading of every pixel column
+// (up to 2 * width points), so no spike is ever dropped.
+public final class Downsampler {
+
+    public enum Mode { LTTB, MIN_MAX }
+
+    // Smallest width LTTB works with: first point, one bucket, last point
+    private static final int MIN_LTTB_POINTS = 3;
+
+    private Downsampler() {}
+
+    // Chart points in date order: x is the epoch day, y the weight
+    public static final class Points {
+        private final int[] days;
+        private final double[] weights;
+        private final int size;
+
+        Points(int[] days, double[] weights, int size) {
+            this.days = days;
+            this.weights = weights;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int getEpochDay(int index) {
+            return days[index];
+        }
+
+        public double getWeight(int index) {
+            return weights[index];
+        }
+    }
+
+    public static Points downsample(WeightSeries.View series, int width, Mode mode) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be positive: " + width);
+        }
+        return mode == Mode.LTTB ? lttb(series, Math.max(MIN_LTTB_POINTS, width)) : minMax(series, width);
+    }
+
+    // Keep 'threshold' points: the first, the last, and from each of the buckets in between
+    // the point forming the largest triangle with the previously kept point and the
+    // average of the next bucket
+    public static Points lttb(WeightSeries.View series, int threshold) {
+        int n = series.size();
+        if (n <= threshold) return copyOf(series);
+
+        int[] days = new int[threshold];
+        double[] weights = new double[threshold];
+        days[0] = series.getEpochDay(0);
+        weights[0] = series.getWeight(0);
+
+        double every = (double) (n - 2) / (threshold - 2);
+        int kept = 0; // index in 'series' of the last point kept
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket (the last point for the final bucket)
+            int avgFrom = (int) ((bucket + 1) * every) + 1;
+            int avgTo = Math.min((int) ((bucket + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = avgFrom; i < avgTo; i++) {
+                avgX += series.getEpochDay(i);
+                avgY += series.getWeight(i);
+            }
+            int count = avgTo - avgFrom;
+            avgX /= count;
+            avgY /= count;
+
+            int from = (int) (bucket * every) + 1;
+            int to = (int) ((bucket + 1) * every) + 1;
+            double keptX = series.getEpochDay(kept);
+            double keptY = series.getWeight(kept);
+            double maxArea = -1;
+            int chosen = from;
+            for (int i = from; i < to; i++) {
+                // Twice the triangle area; only the comparison matters
+                double area = Math.abs((keptX - avgX) * (series.getWeight(i) - keptY)
+                        - (keptX - series.getEpochDay(i)) * (avgY - keptY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            days[bucket + 1] = series.getEpochDay(chosen);
+            weights[bucket + 1] = series.getWeight(chosen);
+            kept = chosen;
+        }
+
+        days[threshold - 1] = series.getEpochDay(n - 1);
+        weights[threshold - 1] = series.getWeight(n - 1);
+        return new Points(days, weights, threshold);
+    }
+
+    // Split the date range into 'width' equal columns and keep the lowest and highest
+    // reading of each, in date order. Empty columns add nothing.
+    public static Points minMax(WeightSeries.View series, int width) {
+        int n = series.size();
+        if (n <= 2 * width) return copyOf(series);
+
+        int[] days = new int[2 * width];
+        double[] weights = new double[2 * width];
+        int size = 0;
+
+        int firstDay = series.getEpochDay(0);
+        long span = (long) series.getEpochDay(n - 1) - firstDay + 1;
+        long bucket = 0;
+        int min = 0;
+        int max = 0;
+        for (int i = 1; i <= n; i++) {
+            long next = i < n ? (series.getEpochDay(i) - firstDay) * (long) width / span : -1;
+            if (next == bucket) {
+                double weight = series.getWeight(i);
+                if (weight < series.getWeight(min)) min = i;
+                if (weight > series.getWeight(max)) max = i;
+                continue;
+            }
+            // Column finished: emit its extremes in date order
+            int lo = Math.min(min, max);
+            int hi = Math.max(min, max);
+            days[size] = series.getEpochDay(lo);
+            weights[size++] = series.getWeight(lo);
+            if (hi != lo) {
+                days[size] = series.getEpochDay(hi);
+                weights[size++] = series.getWeight(hi);
+            }
+            bucket = next;
+            min = i;
+            max = i;
+        }
+        return new Points(days, weights, size);
+    }
+
+    private static Points copyOf(WeightSeries.View series) {
+        int n = series.size();
+        int[] days = new int[n];
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = series.getEpochDay(i);
+            weights[i] = series.getWeight(i);
+        }
+        return new Points(days, weights, n);
+    }
+}
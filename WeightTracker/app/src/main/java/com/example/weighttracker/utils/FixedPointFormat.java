@@ -0,0 +1,60 @@
+package com.example.weighttracker.utils;
+
+// Writes numbers with a fixed number of decimals straight into a char buffer,
+// as a garbage-free replacement for String.format("%.1f", value) on hot paths.
+// Always uses '.' as the decimal separator.
+public final class FixedPointFormat {
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    // Longest output: sign, 19 digits, point, 6 decimals
+    public static final int MAX_LENGTH = 27;
+
+    private FixedPointFormat() {}
+
+    // Format 'value' rounded half-up to 'decimals' places (0-6) into out[offset...].
+    // Returns the number of chars written. NaN and infinities are written as "-".
+    public static int format(double value, int decimals, char[] out, int offset) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Decimals must be 0-" + (POWERS_OF_TEN.length - 1));
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out[offset] = '-';
+            return 1;
+        }
+
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        int pos = offset;
+        if (value < 0 && scaled != 0) out[pos++] = '-';
+
+        long whole = scaled / scale;
+        long fraction = scaled % scale;
+
+        // integer digits, written backwards then reversed in place
+        int start = pos;
+        do {
+            out[pos++] = (char) ('0' + whole % 10);
+            whole /= 10;
+        } while (whole > 0);
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            char tmp = out[i];
+            out[i] = out[j];
+            out[j] = tmp;
+        }
+
+        if (decimals > 0) {
+            out[pos++] = '.';
+            for (long divisor = scale / 10; divisor > 0; divisor /= 10) {
+                out[pos++] = (char) ('0' + fraction / divisor % 10);
+            }
+        }
+        return pos - offset;
+    }
+
+    // Append 'text' at out[offset...]; returns the number of chars written
+    public static int append(String text, char[] out, int offset) {
+        text.getChars(0, text.length(), out, offset);
+        return text.length();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.weighttracker.utils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps every counter and histogram in memory, for tests and debug builds
+public class InMemoryMetricsSink implements Metrics.Sink {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    @Override
+    public void record(String name, long value) {
+        histograms.computeIfAbsent(name, key -> new Histogram()).record(value);
+    }
+
+    public long getCounter(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter != null ? counter.get() : 0;
+    }
+
+    // Null if nothing was recorded under 'name'
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    public Set<String> getNames() {
+        Set<String> names = new TreeSet<>(counters.keySet());
+        names.addAll(histograms.keySet());
+        return names;
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+}
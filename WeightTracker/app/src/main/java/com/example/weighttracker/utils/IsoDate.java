@@ -0,0 +1,144 @@
+package com.example.weighttracker.utils;
+
+// Conversions between ISO "yyyy-MM-dd" dates and epoch days (days since 1970-01-01).
+// Works directly on the characters so it is usable on every API level (no java.time).
+public final class IsoDate {
+
+    // Returned by the non-throwing parsers for malformed or non-existent dates
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    // Length of "yyyy-MM-dd"
+    public static final int LENGTH = 10;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private IsoDate() {}
+
+    // Parse "yyyy-MM-dd" from buf[off, off + len) without allocating.
+    // Returns INVALID unless the text is a real calendar date.
+    public static int parseEpochDay(char[] buf, int off, int len) {
+        if (len != 10 || buf[off + 4] != '-' || buf[off + 7] != '-') return INVALID;
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) continue;
+            int digit = buf[off + i] - '0';
+            if (digit < 0 || digit > 9) return INVALID;
+            if (i < 4) {
+                year = year * 10 + digit;
+            } else if (i < 7) {
+                month = month * 10 + digit;
+            } else {
+                day = day * 10 + digit;
+            }
+        }
+        return checkedEpochDay(year, month, day);
+    }
+
+    // Same as above, straight from a String or other CharSequence
+    public static int parseEpochDay(CharSequence date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) continue;
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return INVALID;
+            if (i < 4) {
+                year = year * 10 + digit;
+            } else if (i < 7) {
+                month = month * 10 + digit;
+            } else {
+                day = day * 10 + digit;
+            }
+        }
+        return checkedEpochDay(year, month, day);
+    }
+
+    // A real calendar date on or before 'today' (an epoch day, see today())
+    public static boolean isValid(CharSequence date, int today) {
+        int day = parseEpochDay(date);
+        return day != INVALID && day <= today;
+    }
+
+    private static int checkedEpochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) return INVALID;
+        return toEpochDay(year, month, day);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Today's epoch day in UTC: the day the weights table's CHECK against date('now')
+    // uses, so every validator accepts exactly the dates the database will. Read it once
+    // per batch and pass it to isValid() rather than asking the clock for every row.
+    public static int todayUtc() {
+        return (int) Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY);
+    }
+
+    // Parse "yyyy-MM-dd" into an epoch day, throwing for anything that is not a real date
+    public static int toEpochDay(CharSequence date) {
+        int day = parseEpochDay(date);
+        if (day == INVALID) {
+            throw new IllegalArgumentException("Not an ISO date: " + date);
+        }
+        return day;
+    }
+
+    // Days from civil date (proleptic Gregorian calendar)
+    public static int toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Format an epoch day back to "yyyy-MM-dd"
+    public static String format(int epochDay) {
+        char[] out = new char[LENGTH];
+        formatInto(epochDay, out, 0);
+        return new String(out);
+    }
+
+    // Write "yyyy-MM-dd" for an epoch day into out[offset, offset + LENGTH) without allocating
+    public static void formatInto(int epochDay, char[] out, int offset) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        out[offset] = (char) ('0' + year / 1000 % 10);
+        out[offset + 1] = (char) ('0' + year / 100 % 10);
+        out[offset + 2] = (char) ('0' + year / 10 % 10);
+        out[offset + 3] = (char) ('0' + year % 10);
+        out[offset + 4] = '-';
+        out[offset + 5] = (char) ('0' + month / 10);
+        out[offset + 6] = (char) ('0' + month % 10);
+        out[offset + 7] = '-';
+        out[offset + 8] = (char) ('0' + day / 10);
+        out[offset + 9] = (char) ('0' + day % 10);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.weighttracker.utils;
+
+// Process-wide counters and histograms for the hot paths (database calls, series loads).
+// Samples go to a pluggable Sink; with none installed (the default) a call is one volatile
+// read, and timers do not even read the clock, so the instrumentation stays in release builds.
+public final class Metrics {
+
+    public interface Sink {
+        void increment(String name, long delta);
+
+        // One histogram sample; timings are in nanoseconds
+        void record(String name, long value);
+    }
+
+    // Database operations (latency)
+    public static final String DB_ADD_USER = "db.addUser"; // includes the BCrypt hash, like validateUser
+    public static final String DB_ADD_WEIGHT = "db.addWeight";
+    public static final String DB_ADD_WEIGHT_BATCH = "db.addWeightEntries";
+    public static final String DB_ADD_WEIGHT_CHUNK = "db.addWeightChunk";
+    public static final String DB_APPLY_BATCH = "db.applyWeightBatch";
+    public static final String DB_DELETE_USER = "db.deleteUserAndWeights";
+    public static final String DB_DELETE_WEIGHT = "db.deleteWeight";
+    public static final String DB_GET_WEIGHTS = "db.getWeightsByUser";
+    public static final String DB_GET_WEIGHTS_PAGE = "db.getWeightsPage";
+    public static final String DB_GET_USER_ID = "db.getUserId";
+    public static final String DB_VALIDATE_USER = "db.validateUser";
+
+    // Phases of one full series load (latency), and its size
+    public static final String LOAD_QUERY = "load.query";
+    public static final String LOAD_DRAIN = "load.drain";
+    public static final String LOAD_AGGREGATE = "load.aggregate";
+    public static final String LOAD_POST = "load.post";
+    public static final String LOAD_ROWS = "load.rows";
+    public static final String LOAD_CANCELLED = "load.cancelled"; // counter
+
+    // Parked series of other users (counters)
+    public static final String CACHE_HIT = "cache.hit";
+    public static final String CACHE_MISS = "cache.miss";
+    public static final String CACHE_EVICT = "cache.evict";
+
+    // Write-behind queue: operations per flushed batch (histogram)
+    public static final String WRITE_BATCH_SIZE = "write.batchSize";
+
+    private static volatile Sink sink;
+
+    private Metrics() {}
+
+    // Pass null to turn recording off
+    public static void setSink(Sink newSink) {
+        sink = newSink;
+    }
+
+    public static Sink getSink() {
+        return sink;
+    }
+
+    public static boolean isEnabled() {
+        return sink != null;
+    }
+
+    // Start time for stopTimer(), or 0 when nothing is recording
+    public static long startTimer() {
+        return sink != null ? System.nanoTime() : 0;
+    }
+
+    // Record the time since 'start' under 'name'; returns the current time so phases can chain
+    public static long stopTimer(String name, long start) {
+        Sink current = sink;
+        if (current == null || start == 0) return 0;
+        long now = System.nanoTime();
+        current.record(name, now - start);
+        return now;
+    }
+
+    public static void increment(String name) {
+        increment(name, 1);
+    }
+
+    public static void increment(String name, long delta) {
+        Sink current = sink;
+        if (current != null) current.increment(name, delta);
+    }
+
+    public static void record(String name, long value) {
+        Sink current = sink;
+        if (current != null) current.record(name, value);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.weighttracker.utils;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+// BCrypt hashing with a cost factor tuned to the device.
+// Every cost step doubles the hashing time, so the cost is picked by timing one
+// cheap hash and extrapolating: fast devices get a stronger cost than the fixed
+// DEFAULT_COST, slow ones keep DEFAULT_COST and never go below it. Stored hashes
+// carry their own cost, so changing it never invalidates existing passwords.
+public final class PasswordHasher {
+
+    public static final int DEFAULT_COST = 12;
+    public static final int MIN_COST = DEFAULT_COST; // never weaker than the fixed cost, however slow the device
+    public static final int MAX_COST = 14;
+    public static final long DEFAULT_TARGET_MILLIS = 250;
+
+    private static final int PROBE_COST = 8;
+    private static final String PROBE_PASSWORD = "calibration-probe-1";
+
+    private static volatile int cost = DEFAULT_COST;
+
+    private PasswordHasher() {}
+
+    public static int getCost() {
+        return cost;
+    }
+
+    public static void setCost(int newCost) {
+        cost = clamp(newCost);
+    }
+
+    public static String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    public static boolean check(String password, String storedHash) {
+        return BCrypt.checkpw(password, storedHash);
+    }
+
+    // Time a hash at a low cost on this device and return the highest cost whose
+    // extrapolated hash time stays within targetMillis. Takes a few tens of ms; run off the UI thread.
+    public static int calibrate(long targetMillis) {
+        String salt = BCrypt.gensalt(PROBE_COST);
+        BCrypt.hashpw(PROBE_PASSWORD, salt); // warm up the JIT before timing
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(PROBE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return costForTarget(best, PROBE_COST, targetMillis * 1_000_000L);
+    }
+
+    // Highest cost with probeNanos * 2^(cost - probeCost) <= targetNanos, clamped to [MIN_COST, MAX_COST]
+    static int costForTarget(long probeNanos, int probeCost, long targetNanos) {
+        int chosen = probeCost;
+        long estimate = Math.max(1, probeNanos);
+        while (chosen < MAX_COST && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            chosen++;
+        }
+        return clamp(chosen);
+    }
+
+    private static int clamp(int value) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, value));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.weighttracker.utils;
+
+// Fixed-size sliding window over a stream of doubles.
+// Every add() is O(1) amortized: the running mean and variance are updated with
+// Welford's method (including the removal step), and min/max are tracked with
+// monotonic deques of stream positions, so no step ever rescans the window.
+public class RollingWindow {
+
+    private final int size;
+    private final double[] values;   // ring buffer of the last 'size' values
+    private final long[] minDeque;   // stream positions, values increasing from head
+    private final long[] maxDeque;   // stream positions, values decreasing from head
+    private int minHead, minCount;
+    private int maxHead, maxCount;
+
+    private long added;              // total values pushed since the last clear()
+    private int count;               // values currently inside the window
+    private double mean;
+    private double m2;               // sum of squared deviations from the mean
+
+    public RollingWindow(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+        this.size = size;
+        this.values = new double[size];
+        this.minDeque = new long[size];
+        this.maxDeque = new long[size];
+    }
+
+    // Push a value, evicting the oldest one once the window is full
+    public void add(double value) {
+        long position = added;
+        int slot = (int) (position % size);
+
+        if (count == size) {
+            double old = values[slot];
+            double oldMean = mean;
+            mean += (value - old) / size;
+            m2 += (value - old) * (value - mean + old - oldMean);
+            if (m2 < 0) m2 = 0; // guard against rounding drift
+        } else {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+        values[slot] = value;
+        added++;
+
+        long oldest = added - count;
+
+        // Drop positions that slid out of the window
+        if (minCount > 0 && minDeque[minHead] < oldest) {
+            minHead = (minHead + 1) % size;
+            minCount--;
+        }
+        if (maxCount > 0 && maxDeque[maxHead] < oldest) {
+            maxHead = (maxHead + 1) % size;
+            maxCount--;
+        }
+
+        // Pop dominated positions from the tail, then append the new one
+        while (minCount > 0 && valueAt(minDeque[(minHead + minCount - 1) % size]) >= value) {
+            minCount--;
+        }
+        minDeque[(minHead + minCount) % size] = position;
+        minCount++;
+
+        while (maxCount > 0 && valueAt(maxDeque[(maxHead + maxCount - 1) % size]) <= value) {
+            maxCount--;
+        }
+        maxDeque[(maxHead + maxCount) % size] = position;
+        maxCount++;
+    }
+
+    private double valueAt(long position) {
+        return values[(int) (position % size)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == size;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Population variance of the values currently in the window
+    public double variance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    // Sample (n - 1) variance of the values currently in the window
+    public double sampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    public double min() {
+        return minCount == 0 ? Double.NaN : valueAt(minDeque[minHead]);
+    }
+
+    public double max() {
+        return maxCount == 0 ? Double.NaN : valueAt(maxDeque[maxHead]);
+    }
+
+    public void clear() {
+        added = 0;
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        minHead = minCount = 0;
+        maxHead = maxCount = 0;
+    }
+
+    // Mean of every full window over values[0..length), one result per window end.
+    // Returns an empty array when there are fewer than 'window' values.
+    public static double[] movingAverage(double[] values, int length, int window) {
+        if (length < window) return new double[0];
+
+        RollingWindow rolling = new RollingWindow(window);
+        double[] averages = new double[length - window + 1];
+        for (int i = 0; i < length; i++) {
+            rolling.add(values[i]);
+            if (i >= window - 1) {
+                averages[i - window + 1] = rolling.mean();
+            }
+        }
+        return averages;
+    }
+
+    public static double[] movingAverage(double[] values, int window) {
+        return movingAverage(values, values.length, window);
+    }
+}
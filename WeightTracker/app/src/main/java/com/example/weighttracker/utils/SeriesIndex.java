@@ -0,0 +1,112 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+
+// Navigable date queries over a date-sorted (ascending) WeightSeries view:
+// nearest entry on or before / on or after a date, and half-open date ranges.
+// Every query is a binary search over the epoch-day column, O(log n), and ranges
+// come back as zero-copy sub-views of the same columns.
+//
+// For evenly spaced data (one entry a day, give or take) the interpolation variants
+// usually find the position in a couple of probes; they fall back to binary search
+// when the guesses stop narrowing, so they are never worse than O(log n).
+public class SeriesIndex {
+
+    private static final int INTERPOLATION_PROBES = 4;
+
+    private final WeightSeries.View series;
+
+    public SeriesIndex(WeightSeries.View series) {
+        this.series = series;
+    }
+
+    public WeightSeries.View getSeries() {
+        return series;
+    }
+
+    // Index of the last row dated on or before 'day', or -1
+    public int floorIndex(int day) {
+        return WeightUtils.upperBound(series, day) - 1;
+    }
+
+    // Index of the first row dated on or after 'day', or -1
+    public int ceilingIndex(int day) {
+        int index = WeightUtils.lowerBound(series, day);
+        return index < series.size() ? index : -1;
+    }
+
+    public int floorIndex(String isoDate) {
+        return floorIndex(IsoDate.toEpochDay(isoDate));
+    }
+
+    public int ceilingIndex(String isoDate) {
+        return ceilingIndex(IsoDate.toEpochDay(isoDate));
+    }
+
+    // Weight on or before the date (the latest one that day), or null
+    public WeightEntry floor(String isoDate) {
+        int index = floorIndex(isoDate);
+        return index != -1 ? series.toEntry(index) : null;
+    }
+
+    // Weight on or after the date (the first one that day), or null
+    public WeightEntry ceiling(String isoDate) {
+        int index = ceilingIndex(isoDate);
+        return index != -1 ? series.toEntry(index) : null;
+    }
+
+    // Rows dated in [fromDay, toDay), without copying
+    public WeightSeries.View range(int fromDay, int toDay) {
+        int from = WeightUtils.lowerBound(series, fromDay);
+        int to = Math.max(from, WeightUtils.lowerBound(series, toDay));
+        return series.subView(from, to);
+    }
+
+    // Rows dated from 'fromDate' (inclusive) up to 'toDate' (exclusive)
+    public WeightSeries.View range(String fromDate, String toDate) {
+        return range(IsoDate.toEpochDay(fromDate), IsoDate.toEpochDay(toDate));
+    }
+
+    // Same result as floorIndex(day), found by interpolation search
+    public int interpolationFloorIndex(int day) {
+        return interpolationLowerBound(day + 1) - 1;
+    }
+
+    // Same result as ceilingIndex(day), found by interpolation search
+    public int interpolationCeilingIndex(int day) {
+        int index = interpolationLowerBound(day);
+        return index < series.size() ? index : -1;
+    }
+
+    // First row whose day is >= key. Each probe guesses the position from where the key
+    // sits between the days at the ends of [left, right); after a few probes the
+    // remaining range is finished off by binary search.
+    private int interpolationLowerBound(int key) {
+        int left = 0;
+        int right = series.size();
+        for (int probe = 0; probe < INTERPOLATION_PROBES && left < right; probe++) {
+            int low = series.getEpochDay(left);
+            int high = series.getEpochDay(right - 1);
+            if (key <= low) return left;
+            if (key > high) return right;
+
+            int guess = left + (int) ((long) (key - low) * (right - 1 - left) / ((long) high - low));
+            if (series.getEpochDay(guess) < key) {
+                left = guess + 1;
+            } else {
+                right = guess; // the answer is at or before the guess
+            }
+        }
+
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (series.getEpochDay(mid) < key) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+
+import java.util.List;
+
+// Moving average over true calendar days instead of the last N rows.
+// Entry i is averaged over the days (day[i] - windowDays, day[i]]; windows that
+// would reach before the first entry are clamped to start at the first entry.
+//
+// Gap handling for days without an entry:
+//   SKIP          - average only the entries that fall inside the window
+//   CARRY_FORWARD - a missing day takes the value of the last logged day
+//   INTERPOLATE   - a missing day takes the linear interpolation of its neighbours
+//
+// CARRY_FORWARD and INTERPOLATE are computed from a running day-integral F(x)
+// (sum of the filled-in daily values up to day x), so each window sum is
+// F(end) - F(start - 1) and the whole series is one two-pointer pass.
+// When several entries share a day, the last one stands for that day.
+public final class TimeWindowAverage {
+
+    public enum GapMode { SKIP, CARRY_FORWARD, INTERPOLATE }
+
+    private TimeWindowAverage() {}
+
+    // Calendar moving average for entries sorted by date, parsing each date once
+    public static double[] calculate(List<WeightEntry> sortedEntries, int windowDays, GapMode mode) {
+        return calculate(WeightUtils.toEpochDays(sortedEntries), WeightUtils.toWeightArray(sortedEntries),
+                sortedEntries.size(), windowDays, mode);
+    }
+
+    // Calendar moving average straight from the columns of a date-sorted series
+    public static double[] calculate(WeightSeries.View series, int windowDays, GapMode mode) {
+        return calculate(series.epochDays(), series.weights(), series.size(), windowDays, mode);
+    }
+
+    public static double[] calculate(int[] days, double[] values, int length, int windowDays, GapMode mode) {
+        double[] out = new double[length];
+        calculateRange(days, values, length, windowDays, mode, out, 0, length);
+        return out;
+    }
+
+    // Compute out[from..to) only. The pass starts from the first entry that can reach
+    // the window of 'from', so recomputing a slice costs O(slice + window), not O(n).
+    public static void calculateRange(int[] days, double[] values, int length, int windowDays,
+                                      GapMode mode, double[] out, int from, int to) {
+        if (windowDays <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowDays);
+        }
+        if (from >= to || length == 0) return;
+
+        if (mode == GapMode.SKIP) {
+            skipRange(days, values, windowDays, out, from, to);
+        } else {
+            filledRange(days, values, windowDays, mode == GapMode.INTERPOLATE, out, from, to);
+        }
+    }
+
+    private static void skipRange(int[] days, double[] values, int windowDays,
+                                  double[] out, int from, int to) {
+        int left = WeightUtils.lowerBound(days, 0, from, days[from] - windowDays + 1);
+        double sum = 0;
+        for (int k = left; k < from; k++) sum += values[k];
+
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+            int start = days[i] - windowDays + 1;
+            while (days[left] < start) {
+                sum -= values[left++];
+            }
+            out[i] = sum / (i - left + 1);
+        }
+    }
+
+    private static void filledRange(int[] days, double[] values, int windowDays, boolean interpolate,
+                                    double[] out, int from, int to) {
+        // Left pointer: last entry on or before the day preceding the window.
+        // F is tracked relative to day[j]; at j == 0 it is absolute (F(day[0]) = value[0]).
+        int j = Math.max(0, WeightUtils.lowerBound(days, 0, from, days[from] - windowDays + 1) - 1);
+        double fLeft = j == 0 ? values[0] : 0;
+
+        double fRight = fLeft;
+        for (int k = j; k < from; k++) {
+            fRight += step(days, values, k, interpolate);
+        }
+
+        for (int i = from; i < to; i++) {
+            if (i > from) fRight += step(days, values, i - 1, interpolate);
+
+            int beforeStart = days[i] - windowDays;
+            while (j + 1 <= i && days[j + 1] <= beforeStart) {
+                fLeft += step(days, values, j, interpolate);
+                j++;
+            }
+
+            if (beforeStart < days[0]) {
+                out[i] = fRight / (days[i] - days[0] + 1);
+            } else {
+                double baseline = fLeft + partial(days, values, j, beforeStart - days[j], interpolate);
+                out[i] = (fRight - baseline) / windowDays;
+            }
+        }
+    }
+
+    // F(day[k + 1]) - F(day[k])
+    private static double step(int[] days, double[] values, int k, boolean interpolate) {
+        return partial(days, values, k, days[k + 1] - days[k] - 1, interpolate) + values[k + 1];
+    }
+
+    // Sum of the filled-in values for the m days after day[k] (m = -1 undoes day[k] itself)
+    private static double partial(int[] days, double[] values, int k, int m, boolean interpolate) {
+        double sum = m * values[k];
+        if (interpolate) {
+            int gap = days[k + 1] - days[k];
+            if (gap > 0) {
+                sum += (values[k + 1] - values[k]) / gap * m * (m + 1) / 2.0;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightSeries;
+
+// Streaming trend metrics over a date-sorted weight series, updated in amortized O(1) per entry:
+//   - EWMA: exponentially weighted average with a half-life in days, so a two-week
+//     gap decays the old level more than a one-day gap does
+//   - slope: least-squares fit (lbs per day) over the trailing 'windowDays' calendar
+//     days, kept as running sums that are added to and subtracted from
+//   - goal ETA: the day the fitted line comes down to the latest goal
+//
+// Several readings on one day are folded into that day's mean: it is one EWMA step and
+// one regression point, so weighing in twice neither drags the EWMA towards the second
+// reading nor counts the day twice in the slope.
+//
+// Entries must arrive in date order. Anything else (an entry dated before the last
+// one, a removal) needs rebuild(), which is the one O(n) pass.
+public class TrendAnalyzer {
+
+    public static final int NO_ETA = IsoDate.INVALID;
+
+    private final double halfLifeDays;
+    private final int windowDays;
+
+    // EWMA state. The EWMA before 'lastDay' and that day's decay are kept so a further
+    // reading on the same day can redo the day's step with the updated mean.
+    private double ewma = Double.NaN;
+    private double ewmaBeforeDay = Double.NaN;
+    private double dayKeep;
+    private int lastDay = IsoDate.INVALID;
+    private double daySum;
+    private int dayCount;
+
+    // Trailing window: ring buffer of (day, mean weight of the day) plus running regression
+    // sums. x is measured from 'anchorDay', which follows the window's oldest day so the
+    // sums stay small however long the history is.
+    private int[] days = new int[16];
+    private double[] weights = new double[16];
+    private int head;
+    private int count;
+    private int anchorDay;
+    private double sumX, sumY, sumXX, sumXY;
+
+    private double goal = Double.NaN; // goal of the latest entry that had one
+    private long entries;
+
+    public TrendAnalyzer(double halfLifeDays, int windowDays) {
+        if (halfLifeDays <= 0) throw new IllegalArgumentException("Half-life must be positive: " + halfLifeDays);
+        if (windowDays <= 0) throw new IllegalArgumentException("Window must be positive: " + windowDays);
+        this.halfLifeDays = halfLifeDays;
+        this.windowDays = windowDays;
+    }
+
+    // Feed the next entry; 'day' must not be before the previous entry's day
+    public void add(int day, double weight, double goal) {
+        if (entries > 0 && day < lastDay) {
+            throw new IllegalArgumentException("Entry for day " + day + " arrives after day " + lastDay);
+        }
+
+        entries++;
+        if (!Double.isNaN(goal)) this.goal = goal;
+
+        if (entries > 1 && day == lastDay) {
+            // Another reading of the same day: replace the day's point and redo its EWMA step
+            daySum += weight;
+            dayCount++;
+            double mean = daySum / dayCount;
+            ewma = Double.isNaN(ewmaBeforeDay) ? mean : dayKeep * ewmaBeforeDay + (1 - dayKeep) * mean;
+            replaceLast(mean);
+            return;
+        }
+
+        if (entries == 1) {
+            ewmaBeforeDay = Double.NaN;
+            ewma = weight;
+        } else {
+            ewmaBeforeDay = ewma;
+            dayKeep = Math.pow(0.5, (day - lastDay) / halfLifeDays);
+            ewma = dayKeep * ewma + (1 - dayKeep) * weight;
+        }
+        lastDay = day;
+        daySum = weight;
+        dayCount = 1;
+
+        push(day, weight);
+        int start = day - windowDays + 1;
+        while (count > 0 && days[head] < start) {
+            pop();
+        }
+        if (days[head] - anchorDay > windowDays) reanchor(days[head]);
+    }
+
+    // Reset and replay a whole series (after out-of-order inserts or removals)
+    public void rebuild(WeightSeries.View series) {
+        clear();
+        for (int i = 0; i < series.size(); i++) {
+            add(series.getEpochDay(i), series.getWeight(i), series.getGoal(i));
+        }
+    }
+
+    public void clear() {
+        ewma = Double.NaN;
+        ewmaBeforeDay = Double.NaN;
+        lastDay = IsoDate.INVALID;
+        daySum = 0;
+        dayCount = 0;
+        head = 0;
+        count = 0;
+        sumX = sumY = sumXX = sumXY = 0;
+        goal = Double.NaN;
+        entries = 0;
+    }
+
+    public long getEntryCount() {
+        return entries;
+    }
+
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    public double getEwma() {
+        return ewma;
+    }
+
+    public double getGoal() {
+        return goal;
+    }
+
+    // Least-squares slope in lbs per day over the trailing window; NaN with fewer than two distinct days
+    public double getSlope() {
+        double denominator = count * sumXX - sumX * sumX;
+        if (count < 2 || denominator <= 1e-9) return Double.NaN;
+        return (count * sumXY - sumX * sumY) / denominator;
+    }
+
+    // Value of the fitted line on 'day'; NaN when there is no slope
+    public double fittedValue(int day) {
+        double slope = getSlope();
+        if (Double.isNaN(slope)) return Double.NaN;
+        double meanX = sumX / count;
+        double meanY = sumY / count;
+        return meanY + slope * ((day - anchorDay) - meanX);
+    }
+
+    // Projected day the fitted line comes down to the goal (like the list, a goal counts as
+    // reached once the weight is at or below it). The last day if it is already reached;
+    // NO_ETA without a goal, or when the trend is flat or rising.
+    public int getGoalEtaDay() {
+        if (entries == 0 || Double.isNaN(goal)) return NO_ETA;
+        double slope = getSlope();
+        double level = Double.isNaN(slope) ? ewma : fittedValue(lastDay);
+        if (level <= goal) return lastDay;
+        if (Double.isNaN(slope) || slope >= 0) return NO_ETA;
+
+        double daysToGoal = Math.ceil((level - goal) / -slope);
+        if (daysToGoal > Integer.MAX_VALUE / 2) return NO_ETA;
+        return lastDay + (int) daysToGoal;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(lastDay, ewma, getSlope(), goal, getGoalEtaDay());
+    }
+
+    private void push(int day, double weight) {
+        if (count == 0) anchorDay = day; // the sums are all zero, so nothing to shift
+        if (count == days.length) grow();
+        int slot = (head + count) % days.length;
+        days[slot] = day;
+        weights[slot] = weight;
+        count++;
+
+        double x = day - anchorDay;
+        sumX += x;
+        sumY += weight;
+        sumXX += x * x;
+        sumXY += x * weight;
+    }
+
+    private void pop() {
+        double x = days[head] - anchorDay;
+        double y = weights[head];
+        sumX -= x;
+        sumY -= y;
+        sumXX -= x * x;
+        sumXY -= x * y;
+        head = (head + 1) % days.length;
+        count--;
+        if (count == 0) sumX = sumY = sumXX = sumXY = 0; // drop accumulated rounding
+    }
+
+    // Swap the newest point's weight, keeping its day
+    private void replaceLast(double weight) {
+        int slot = (head + count - 1) % days.length;
+        double x = days[slot] - anchorDay;
+        sumY += weight - weights[slot];
+        sumXY += x * (weight - weights[slot]);
+        weights[slot] = weight;
+    }
+
+    // Measure x from 'day' instead: shift every sum by the difference
+    private void reanchor(int day) {
+        double d = day - anchorDay;
+        sumXX += -2 * d * sumX + count * d * d;
+        sumXY -= d * sumY;
+        sumX -= count * d;
+        anchorDay = day;
+    }
+
+    private void grow() {
+        int[] newDays = new int[days.length * 2];
+        double[] newWeights = new double[weights.length * 2];
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % days.length;
+            newDays[i] = days[slot];
+            newWeights[i] = weights[slot];
+        }
+        days = newDays;
+        weights = newWeights;
+        head = 0;
+    }
+
+    // Immutable copy of the metrics after the latest entry
+    public static class Snapshot {
+        private final int lastDay;
+        private final double ewma;
+        private final double slopePerDay;
+        private final double goal;
+        private final int goalEtaDay;
+
+        Snapshot(int lastDay, double ewma, double slopePerDay, double goal, int goalEtaDay) {
+            this.lastDay = lastDay;
+            this.ewma = ewma;
+            this.slopePerDay = slopePerDay;
+            this.goal = goal;
+            this.goalEtaDay = goalEtaDay;
+        }
+
+        public int getLastDay() {
+            return lastDay;
+        }
+
+        public double getEwma() {
+            return ewma;
+        }
+
+        public double getSlopePerDay() {
+            return slopePerDay;
+        }
+
+        public double getSlopePerWeek() {
+            return slopePerDay * 7;
+        }
+
+        public double getGoal() {
+            return goal;
+        }
+
+        public int getGoalEtaDay() {
+            return goalEtaDay;
+        }
+
+        public boolean hasGoalEta() {
+            return goalEtaDay != NO_ETA;
+        }
+    }
+}
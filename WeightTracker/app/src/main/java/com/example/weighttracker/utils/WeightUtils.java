@@ -1,21 +1,40 @@
 package com.example.weighttracker.utils;
 
 import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class WeightUtils {
 
     // Sort entries by date in ascending order (assumes ISO format: yyyy-MM-dd)
     public static void sortEntriesByDate(List<WeightEntry> entries) {
-        Collections.sort(entries, new Comparator<WeightEntry>() {
-            @Override
-            public int compare(WeightEntry e1, WeightEntry e2) {
-                return e1.getDate().compareTo(e2.getDate());
-            }
-        });
+        sortByEpochDay(entries);
+    }
+
+    // Stable sort by date that parses each date once and sorts primitive keys
+    // (epoch day in the high bits, original position in the low bits).
+    // Returns the sorted epoch days; unparseable dates sort first as IsoDate.INVALID.
+    public static int[] sortByEpochDay(List<WeightEntry> entries) {
+        int n = entries.size();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) IsoDate.parseEpochDay(entries.get(i).getDate()) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        WeightEntry[] sorted = new WeightEntry[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = entries.get((int) keys[i]);
+            days[i] = (int) (keys[i] >> 32);
+        }
+        for (int i = 0; i < n; i++) {
+            entries.set(i, sorted[i]);
+        }
+        return days;
     }
 
     // Binary search for a weight entry by date
@@ -42,20 +61,139 @@ public class WeightUtils {
 
     // Calculate 7-day moving average
     public static double[] calculate7DayMovingAverage(List<WeightEntry> sortedEntries) {
-        int days = 7;
-        int n = sortedEntries.size();
+        return calculateMovingAverage(sortedEntries, 7);
+    }
+
+    // Moving average over a sliding window of 'days' entries, O(n) via RollingWindow
+    public static double[] calculateMovingAverage(List<WeightEntry> sortedEntries, int days) {
+        return RollingWindow.movingAverage(toWeightArray(sortedEntries), days);
+    }
+
+    // The same averages boxed into a List<Double>, as WeightRepository.calculateMovingAverage returns them
+    public static List<Double> calculateMovingAverageList(List<WeightEntry> sortedEntries, int days) {
+        return toDoubleList(calculateMovingAverage(sortedEntries, days));
+    }
+
+    public static List<Double> toDoubleList(double[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for (double value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    // Moving average over a sliding window of 'days' rows of a columnar series, no copying
+    public static double[] calculateMovingAverage(WeightSeries.View series, int days) {
+        int n = series.size();
         if (n < days) return new double[0];
 
+        RollingWindow rolling = new RollingWindow(days);
         double[] averages = new double[n - days + 1];
+        for (int i = 0; i < n; i++) {
+            rolling.add(series.getWeight(i));
+            if (i >= days - 1) {
+                averages[i - days + 1] = rolling.mean();
+            }
+        }
+        return averages;
+    }
+
+    // Binary search for the row logged on 'targetDate' in a date-sorted series, or -1.
+    // With several rows on that day, returns the first.
+    public static int findIndexByDate(WeightSeries.View series, String targetDate) {
+        int day = IsoDate.toEpochDay(targetDate);
+        int index = lowerBound(series, day);
+        return index < series.size() && series.getEpochDay(index) == day ? index : -1;
+    }
 
-        for (int i = 0; i <= n - days; i++) {
-            double sum = 0;
-            for (int j = 0; j < days; j++) {
-                sum += sortedEntries.get(i + j).getWeight();
+    // Latest entry dated on or before 'targetDate' in a date-sorted list, or null.
+    // ISO dates compare chronologically as plain strings, so no parsing is needed.
+    public static WeightEntry floorEntryByDate(List<WeightEntry> sortedEntries, String targetDate) {
+        int left = 0;
+        int right = sortedEntries.size();
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (sortedEntries.get(mid).getDate().compareTo(targetDate) <= 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
             }
-            averages[i] = sum / days;
         }
+        return left > 0 ? sortedEntries.get(left - 1) : null;
+    }
 
-        return averages;
+    // Earliest entry dated on or after 'targetDate' in a date-sorted list, or null
+    public static WeightEntry ceilingEntryByDate(List<WeightEntry> sortedEntries, String targetDate) {
+        int left = 0;
+        int right = sortedEntries.size();
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (sortedEntries.get(mid).getDate().compareTo(targetDate) < 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left < sortedEntries.size() ? sortedEntries.get(left) : null;
+    }
+
+    // Copy the weights of the entries into a primitive array
+    public static double[] toWeightArray(List<WeightEntry> entries) {
+        int n = entries.size();
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = entries.get(i).getWeight();
+        }
+        return weights;
+    }
+
+    // Parse the ISO date of every entry into an epoch day, once per entry
+    public static int[] toEpochDays(List<WeightEntry> entries) {
+        int n = entries.size();
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = IsoDate.toEpochDay(entries.get(i).getDate());
+        }
+        return days;
+    }
+
+    // First index in [from, to) whose day is >= key, or 'to' if none
+    public static int lowerBound(int[] days, int from, int to, int key) {
+        int left = from;
+        int right = to;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (days[mid] < key) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    // First index in [from, to) whose day is > key, or 'to' if none
+    public static int upperBound(int[] days, int from, int to, int key) {
+        return lowerBound(days, from, to, key + 1);
+    }
+
+    // First row of a date-sorted series whose day is >= key, or size() if none
+    public static int lowerBound(WeightSeries.View series, int key) {
+        int left = 0;
+        int right = series.size();
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (series.getEpochDay(mid) < key) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    // First row of a date-sorted series whose day is > key, or size() if none
+    public static int upperBound(WeightSeries.View series, int key) {
+        return lowerBound(series, key + 1);
     }
 }
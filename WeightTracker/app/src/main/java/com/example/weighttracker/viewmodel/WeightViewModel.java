@@ -10,18 +10,15 @@ import com.example.weighttracker.model.WeightEntry;
 import com.example.weighttracker.data.WeightRepository;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 public class WeightViewModel extends AndroidViewModel {
 
     private final WeightRepository repository;
-    private final ExecutorService executorService;
 
     public WeightViewModel(@NonNull Application application) {
         super(application);
-        repository = new WeightRepository(application);
-        executorService = Executors.newSingleThreadExecutor();
+        repository = WeightRepository.getInstance(application);
     }
 
     public LiveData<List<WeightEntry>> getWeightEntries(long userId) {
@@ -33,28 +30,18 @@ public class WeightViewModel extends AndroidViewModel {
         return repository.getMovingAverage();
     }
 
-    // Async insert
-    public void addWeight(WeightEntry entry) {
-        executorService.execute(() -> {
-            repository.insertWeight(entry);
-        });
+    // Async insert, batched with other writes arriving at the same time
+    public CompletableFuture<Boolean> addWeight(WeightEntry entry) {
+        return repository.queueInsert(entry);
     }
 
-    // Async delete
-    public void deleteWeight(long weightId, long userId) {
-        executorService.execute(() -> {
-            repository.removeWeight(weightId, userId);
-        });
+    // Async delete, batched with other writes arriving at the same time
+    public CompletableFuture<Boolean> deleteWeight(long weightId, long userId) {
+        return repository.queueRemove(weightId, userId);
     }
 
     // Binary search wrapper for UI or other classes to call
     public WeightEntry findWeightByDate(List<WeightEntry> entries, String targetDate) {
         return repository.findWeightByDate(entries, targetDate);
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        executorService.shutdown();
-    }
 }
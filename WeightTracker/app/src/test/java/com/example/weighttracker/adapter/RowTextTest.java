@@ -0,0 +1,62 @@
+package com.example.weighttracker.adapter;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RowTextTest {
+
+    private static String field(RowText text, int row, int field) {
+        return new String(text.chars(), text.start(row, field), text.length(row, field));
+    }
+
+    private static WeightSeries rows() {
+        WeightSeries series = new WeightSeries(1);
+        series.add(1, IsoDate.toEpochDay("2024-03-01"), 180.25, WeightSeries.NO_GOAL);
+        series.add(2, IsoDate.toEpochDay("2024-03-02"), 179.0, 170.0);
+        series.add(3, IsoDate.toEpochDay("2024-03-03"), 168.5, 170.0);
+        return series;
+    }
+
+    @Test
+    public void build_formatsEveryField() {
+        RowText text = RowText.build(rows().view());
+
+        assertEquals("2024-03-01", field(text, 0, RowText.DATE));
+        assertEquals("180.3 lbs", field(text, 0, RowText.WEIGHT));
+        assertEquals("", field(text, 0, RowText.GOAL));
+        assertEquals("", field(text, 0, RowText.PROGRESS));
+
+        assertEquals("179.0 lbs", field(text, 1, RowText.WEIGHT));
+        assertEquals("170.0 lbs", field(text, 1, RowText.GOAL));
+        assertEquals("9.0 lbs to go", field(text, 1, RowText.PROGRESS));
+
+        assertEquals("170.0 lbs", field(text, 2, RowText.GOAL));
+        assertEquals("", field(text, 2, RowText.PROGRESS)); // goal reached
+    }
+
+    @Test
+    public void build_followsInsertRemoveAndEdit() {
+        WeightSeries series = rows();
+        series.insert(1, 4, IsoDate.toEpochDay("2024-03-01"), 181.0, WeightSeries.NO_GOAL);
+        series.remove(0);
+        series.remove(2);
+        series.insert(2, 5, IsoDate.toEpochDay("2024-03-03"), 175.0, 170.0); // edited row 3
+
+        RowText text = RowText.build(series.view());
+
+        assertEquals("2024-03-01", field(text, 0, RowText.DATE));
+        assertEquals("181.0 lbs", field(text, 0, RowText.WEIGHT));
+        assertEquals("2024-03-02", field(text, 1, RowText.DATE));
+        assertEquals("5.0 lbs to go", field(text, 2, RowText.PROGRESS));
+    }
+
+    @Test
+    public void build_ofAnEmptyOrMissingSnapshotHasNoRows() {
+        assertEquals(0, RowText.build(new WeightSeries(1).view()).chars().length);
+        assertEquals(0, RowText.build(null).chars().length);
+    }
+}
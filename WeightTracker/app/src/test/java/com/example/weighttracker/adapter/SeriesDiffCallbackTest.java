@@ -0,0 +1,86 @@
+package com.example.weighttracker.adapter;
+
+import com.example.weighttracker.model.WeightSeries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesDiffCallbackTest {
+
+    // Three rows on consecutive days; ids 1..3
+    private static WeightSeries base() {
+        WeightSeries series = new WeightSeries(1);
+        series.add(1, 100, 180.0, WeightSeries.NO_GOAL);
+        series.add(2, 101, 179.0, 170.0);
+        series.add(3, 102, 178.0, 170.0);
+        return series;
+    }
+
+    @Test
+    public void insert_keepsIdentityOfTheRowsAroundIt() {
+        WeightSeries.View before = base().view();
+        WeightSeries after = base();
+        after.insert(1, 4, 100, 181.0, WeightSeries.NO_GOAL);
+
+        SeriesDiffCallback callback = new SeriesDiffCallback(before, after.view());
+
+        assertEquals(3, callback.getOldListSize());
+        assertEquals(4, callback.getNewListSize());
+        assertTrue(callback.areItemsTheSame(0, 0));
+        assertFalse(callback.areItemsTheSame(1, 1)); // new row 1 is the inserted one
+        assertTrue(callback.areItemsTheSame(1, 2));
+        assertTrue(callback.areContentsTheSame(1, 2));
+        assertTrue(callback.areItemsTheSame(2, 3));
+        assertTrue(callback.areContentsTheSame(2, 3));
+    }
+
+    @Test
+    public void remove_shiftsLaterRowsWithoutChangingThem() {
+        WeightSeries.View before = base().view();
+        WeightSeries after = base();
+        after.remove(0);
+
+        SeriesDiffCallback callback = new SeriesDiffCallback(before, after.view());
+
+        assertEquals(2, callback.getNewListSize());
+        assertFalse(callback.areItemsTheSame(0, 0));
+        assertTrue(callback.areItemsTheSame(1, 0));
+        assertTrue(callback.areContentsTheSame(1, 0));
+        assertTrue(callback.areItemsTheSame(2, 1));
+    }
+
+    @Test
+    public void edit_keepsTheItemButChangesItsContents() {
+        WeightSeries.View before = base().view();
+        WeightSeries weight = base();
+        weight.remove(1);
+        weight.insert(1, 2, 101, 175.0, 170.0);
+        WeightSeries goal = base();
+        goal.remove(0);
+        goal.insert(0, 1, 100, 180.0, 165.0); // NO_GOAL -> goal
+        WeightSeries date = base();
+        date.remove(2);
+        date.add(3, 103, 178.0, 170.0);
+
+        SeriesDiffCallback weightEdit = new SeriesDiffCallback(before, weight.view());
+        assertTrue(weightEdit.areItemsTheSame(1, 1));
+        assertFalse(weightEdit.areContentsTheSame(1, 1));
+        assertTrue(weightEdit.areContentsTheSame(0, 0));
+
+        SeriesDiffCallback goalEdit = new SeriesDiffCallback(before, goal.view());
+        assertTrue(goalEdit.areItemsTheSame(0, 0));
+        assertFalse(goalEdit.areContentsTheSame(0, 0));
+
+        SeriesDiffCallback dateEdit = new SeriesDiffCallback(before, date.view());
+        assertTrue(dateEdit.areItemsTheSame(2, 2));
+        assertFalse(dateEdit.areContentsTheSame(2, 2));
+    }
+
+    @Test
+    public void missingGoals_compareEqual() {
+        // NO_GOAL is NaN, which == would never consider equal
+        SeriesDiffCallback callback = new SeriesDiffCallback(base().view(), base().view());
+        assertTrue(callback.areContentsTheSame(0, 0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.weighttracker.data;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.Observer;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LoaderLiveDataTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantExecutor = new InstantTaskExecutorRule();
+
+    // Runs queued tasks only when asked, so tests control completion order
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final LoaderLiveData<String> liveData = new LoaderLiveData<>(queue::add);
+    private final List<String> posted = new ArrayList<>();
+    private final Observer<String> observer = posted::add;
+
+    @Test
+    public void load_startsOnlyOnceObserved() {
+        liveData.load(generation -> "A");
+        assertTrue(queue.isEmpty());
+        assertTrue(liveData.isLoading());
+
+        liveData.observeForever(observer);
+        assertEquals(1, queue.size());
+        queue.poll().run();
+
+        assertEquals("A", liveData.getValue());
+        assertFalse(liveData.isLoading());
+    }
+
+    @Test
+    public void supersededResult_isDropped() {
+        liveData.observeForever(observer);
+        liveData.load(generation -> "A");
+        Runnable loadA = queue.poll();
+        liveData.load(generation -> "B");
+        Runnable loadB = queue.poll();
+
+        loadB.run();
+        loadA.run(); // finishes last but belongs to an older generation
+
+        assertEquals(1, posted.size());
+        assertEquals("B", liveData.getValue());
+    }
+
+    @Test
+    public void runningLoad_seesItWasSuperseded() {
+        liveData.observeForever(observer);
+        boolean[] stillCurrent = new boolean[1];
+        liveData.load(generation -> {
+            liveData.load(next -> "B");
+            stillCurrent[0] = liveData.isCurrent(generation);
+            return "A";
+        });
+        queue.poll().run();
+
+        assertFalse(stillCurrent[0]);
+        assertTrue(posted.isEmpty());
+    }
+
+    @Test
+    public void sameKey_joinsTheLoadInFlight() {
+        liveData.observeForever(observer);
+        int first = liveData.load(1L, generation -> "A");
+        int joined = liveData.load(1L, generation -> "A again");
+
+        assertEquals(first, joined);
+        assertEquals(1, queue.size());
+        queue.poll().run();
+        assertEquals(1, posted.size());
+        assertEquals("A", liveData.getValue());
+
+        // Once it finished, the same key loads afresh; another key supersedes it
+        liveData.load(1L, generation -> "A2");
+        liveData.load(2L, generation -> "B");
+        assertEquals(2, queue.size());
+        queue.poll().run();
+        queue.poll().run();
+        assertEquals("B", liveData.getValue());
+    }
+
+    @Test
+    public void unkeyedLoad_neverJoins() {
+        liveData.observeForever(observer);
+        liveData.load(1L, generation -> "A");
+        liveData.load(generation -> "B");
+        liveData.load(1L, generation -> "C");
+
+        assertEquals(3, queue.size());
+        while (!queue.isEmpty()) queue.poll().run();
+        assertEquals(1, posted.size());
+        assertEquals("C", liveData.getValue());
+    }
+
+    @Test
+    public void cancel_dropsPendingLoad() {
+        liveData.load(generation -> "A");
+        liveData.cancel();
+        liveData.observeForever(observer);
+
+        assertTrue(queue.isEmpty());
+        assertFalse(liveData.isLoading());
+        assertNull(liveData.getValue());
+    }
+}
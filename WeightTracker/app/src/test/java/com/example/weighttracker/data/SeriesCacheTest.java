@@ -0,0 +1,85 @@
+package com.example.weighttracker.data;
+
+import android.content.ComponentCallbacks2;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.TimeWindowAverage;
+import com.example.weighttracker.utils.TrendAnalyzer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesCacheTest {
+
+    private static SeriesCache.Entry entry(long userId, int rows) {
+        WeightSeries series = new WeightSeries(userId, rows);
+        for (int i = 0; i < rows; i++) {
+            series.add(i, i, 180, WeightSeries.NO_GOAL);
+        }
+        return new SeriesCache.Entry(series, new double[rows], 7, TimeWindowAverage.GapMode.SKIP,
+                new TrendAnalyzer(7, 28));
+    }
+
+    @Test
+    public void take_removesParkedEntry() {
+        SeriesCache cache = new SeriesCache(SeriesCache.DEFAULT_MAX_BYTES);
+        SeriesCache.Entry parked = entry(1, 100);
+        cache.put(parked);
+
+        assertSame(parked, cache.take(1));
+        assertNull(cache.take(1));
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedOverBudget() {
+        long oneEntry = entry(1, 1000).bytes;
+        SeriesCache cache = new SeriesCache(oneEntry * 2);
+        cache.put(entry(1, 1000));
+        cache.put(entry(2, 1000));
+        cache.put(entry(1, 1000)); // parked again, so user 2 is now the eldest
+        cache.put(entry(3, 1000));
+
+        assertTrue(cache.contains(1));
+        assertFalse(cache.contains(2));
+        assertTrue(cache.contains(3));
+        assertTrue(cache.sizeInBytes() <= oneEntry * 2);
+    }
+
+    @Test
+    public void put_skipsEntryLargerThanBudget() {
+        SeriesCache cache = new SeriesCache(10_000);
+        cache.put(entry(1, 10_000));
+
+        assertFalse(cache.contains(1));
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    @Test
+    public void invalidate_dropsOnlyThatUser() {
+        SeriesCache cache = new SeriesCache(SeriesCache.DEFAULT_MAX_BYTES);
+        cache.put(entry(1, 10));
+        cache.put(entry(2, 10));
+
+        cache.invalidate(1);
+
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(2));
+        assertEquals(entry(2, 10).bytes, cache.sizeInBytes());
+    }
+
+    @Test
+    public void memoryPressure_trimsThenClears() {
+        long oneEntry = entry(1, 1000).bytes;
+        SeriesCache cache = new SeriesCache(oneEntry * 4);
+        for (long user = 1; user <= 4; user++) cache.put(entry(user, 1000));
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(oneEntry * 2, cache.sizeInBytes());
+        assertTrue(cache.contains(4));
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(0, cache.sizeInBytes());
+    }
+}
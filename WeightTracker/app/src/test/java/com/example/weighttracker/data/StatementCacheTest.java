@@ -0,0 +1,61 @@
+package com.example.weighttracker.data;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class StatementCacheTest {
+    private static final String INSERT = "INSERT INTO user_weights (user_id) VALUES (?)";
+    private static final String DELETE = "DELETE FROM user_weights WHERE weight_id = ?";
+
+    private final SQLiteDatabase db = mock(SQLiteDatabase.class);
+    private final SQLiteStatement insert = mock(SQLiteStatement.class);
+    private final SQLiteStatement delete = mock(SQLiteStatement.class);
+    private StatementCache cache;
+
+    @Before
+    public void setUp() {
+        when(db.isOpen()).thenReturn(true);
+        when(db.compileStatement(INSERT)).thenReturn(insert);
+        when(db.compileStatement(DELETE)).thenReturn(delete);
+        cache = new StatementCache(db);
+    }
+
+    @Test
+    public void get_compilesEachStatementOnce() {
+        assertSame(insert, cache.get(INSERT));
+        assertSame(insert, cache.get(INSERT));
+        assertSame(delete, cache.get(DELETE));
+        assertSame(insert, cache.get(INSERT));
+
+        verify(db, times(1)).compileStatement(INSERT);
+        verify(db, times(1)).compileStatement(DELETE);
+    }
+
+    @Test
+    public void close_closesEveryStatementAndCompilesAfresh() {
+        cache.get(INSERT);
+        cache.get(DELETE);
+
+        cache.close();
+        verify(insert).close();
+        verify(delete).close();
+
+        cache.get(INSERT);
+        verify(db, times(2)).compileStatement(INSERT);
+    }
+
+    @Test
+    public void isFor_onlyTheSameOpenDatabase() {
+        assertTrue(cache.isFor(db));
+        assertFalse(cache.isFor(mock(SQLiteDatabase.class)));
+
+        when(db.isOpen()).thenReturn(false); // reopened helpers hand out a new database
+        assertFalse(cache.isFor(db));
+    }
+}
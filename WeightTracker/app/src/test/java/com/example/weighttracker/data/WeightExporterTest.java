@@ -0,0 +1,43 @@
+package com.example.weighttracker.data;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeightExporterTest {
+
+    private final char[] row = new char[WeightExporter.MAX_ROW_LENGTH];
+
+    private String csv(String date, double weight, double goal) {
+        return new String(row, 0, WeightExporter.encodeCsvRow(IsoDate.toEpochDay(date), weight, goal, row));
+    }
+
+    private String json(String date, double weight, double goal, boolean first) {
+        return new String(row, 0, WeightExporter.encodeJsonRow(IsoDate.toEpochDay(date), weight, goal, first, row));
+    }
+
+    @Test
+    public void csvRow_trimsTrailingZerosAndLeavesMissingGoalEmpty() {
+        assertEquals("2024-01-31,181.5,170\n", csv("2024-01-31", 181.5, 170));
+        assertEquals("2024-02-01,179.25,\n", csv("2024-02-01", 179.25, WeightSeries.NO_GOAL));
+        assertEquals("2024-02-02,180,\n", csv("2024-02-02", 180.004, WeightSeries.NO_GOAL));
+    }
+
+    @Test
+    public void jsonRow_separatesElementsAndOmitsMissingGoal() {
+        assertEquals("\n{\"date\":\"2024-01-31\",\"weight\":181.5,\"goal\":170}",
+                json("2024-01-31", 181.5, 170, true));
+        assertEquals(",\n{\"date\":\"2024-02-01\",\"weight\":300}",
+                json("2024-02-01", 300, WeightSeries.NO_GOAL, false));
+    }
+
+    @Test
+    public void longestRow_fitsTheRowBuffer() {
+        double huge = -9.99e17;
+        assertTrue(WeightExporter.encodeJsonRow(IsoDate.toEpochDay("2024-12-31"), huge, huge, false, row)
+                <= WeightExporter.MAX_ROW_LENGTH);
+    }
+}
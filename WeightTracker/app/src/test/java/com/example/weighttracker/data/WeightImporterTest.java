@@ -0,0 +1,209 @@
+package com.example.weighttracker.data;
+
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.IsoDate;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeightImporterTest {
+
+    // Rows handed to the database, one copied series per committed chunk
+    private final List<WeightSeries> chunks = new ArrayList<>();
+    private int failChunk = -1; // index of a chunk to roll back
+
+    private WeightImporter importer(int chunkSize) {
+        return new WeightImporter(chunk -> {
+            int index = chunks.size();
+            chunks.add(chunk.copy());
+            return index == failChunk ? -1 : chunk.size();
+        }, 1, chunkSize, null);
+    }
+
+    private WeightImporter.ImportStats csv(String text) throws IOException {
+        return importer(100).importCsv(new StringReader(text));
+    }
+
+    private WeightImporter.ImportStats json(String text) throws IOException {
+        return importer(100).importJson(new StringReader(text));
+    }
+
+    private WeightSeries imported() {
+        WeightSeries all = new WeightSeries(1);
+        for (WeightSeries chunk : chunks) {
+            for (int i = 0; i < chunk.size(); i++) {
+                all.add(-1, chunk.getEpochDay(i), chunk.getWeight(i), chunk.getGoal(i));
+            }
+        }
+        return all;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) builder.append(c);
+        return builder.toString();
+    }
+
+    private static double parse(String text) {
+        char[] buf = new char[64];
+        text.getChars(0, text.length(), buf, 0);
+        return WeightImporter.parseDecimal(buf, text.length());
+    }
+
+    @Test
+    public void parseDecimal_readsPlainDecimals() {
+        assertEquals(181.0, parse("181"), 0);
+        assertEquals(181.5, parse("181.5"), 0);
+        assertEquals(0.25, parse(".25"), 0);
+        assertEquals(-3.75, parse("-3.75"), 0);
+        assertEquals(170.0, parse(" 170. "), 0);
+    }
+
+    @Test
+    public void parseDecimal_rejectsMalformedText() {
+        assertTrue(Double.isNaN(parse("")));
+        assertTrue(Double.isNaN(parse("weight")));
+        assertTrue(Double.isNaN(parse("1.2.3")));
+        assertTrue(Double.isNaN(parse("-")));
+        assertTrue(Double.isNaN(parse("1e3")));
+    }
+
+    @Test
+    public void parseDecimal_rejectsFieldsLongerThanTheBuffer() {
+        char[] buf = "181.5".toCharArray();
+        assertTrue(Double.isNaN(WeightImporter.parseDecimal(buf, buf.length + 1)));
+        assertTrue(Double.isNaN(WeightImporter.parseDecimal(new char[64], 200)));
+    }
+
+    @Test
+    public void csv_skipsHeaderAndBlankLines() throws IOException {
+        WeightImporter.ImportStats stats = csv("date,weight,goal\n\n2024-01-01,181.5,170\r\n\r\n2024-01-02,181\n");
+
+        assertEquals(2, stats.getRowsRead());
+        assertEquals(2, stats.getRowsImported());
+        assertEquals(0, stats.getRowsRejected());
+        WeightSeries rows = imported();
+        assertEquals(IsoDate.toEpochDay("2024-01-01"), rows.getEpochDay(0));
+        assertEquals(181.5, rows.getWeight(0), 0);
+        assertEquals(170.0, rows.getGoal(0), 0);
+        assertEquals(181.0, rows.getWeight(1), 0);
+    }
+
+    @Test
+    public void csv_readsQuotedFields() throws IOException {
+        WeightImporter.ImportStats stats = csv("\"2024-01-01\",\"181.5\",\"\"\n"
+                + "\"2024-01-02\",\"18\"\"1\"\n"); // "" inside quotes is a literal quote
+
+        assertEquals(1, stats.getRowsImported());
+        assertEquals(1, stats.getRowsRejected());
+        WeightSeries rows = imported();
+        assertEquals(181.5, rows.getWeight(0), 0);
+        assertFalse(rows.hasGoal(0));
+    }
+
+    @Test
+    public void csv_emptyGoalIsNoGoalButMalformedGoalRejectsTheRow() throws IOException {
+        WeightImporter.ImportStats stats = csv("2024-01-01,181,\n2024-01-02,180,abc\n");
+
+        assertEquals(1, stats.getRowsImported());
+        assertEquals(1, stats.getRowsRejected());
+        assertFalse(imported().hasGoal(0));
+    }
+
+    @Test
+    public void csv_rejectsOverLongFieldsAndFutureOrInvalidRows() throws IOException {
+        String longWeight = "1" + repeat('0', 100);
+        String longDate = "2024-01-01" + repeat(' ', 100) + "x";
+        WeightImporter.ImportStats stats = csv("2024-01-01," + longWeight + "\n"
+                + longDate + ",180\n"
+                + "2999-01-01,180\n"
+                + "2024-02-30,180\n"
+                + "2024-01-03,10\n"
+                + "2024-01-04,180\n");
+
+        assertEquals(6, stats.getRowsRead());
+        assertEquals(1, stats.getRowsImported());
+        assertEquals(5, stats.getRowsRejected());
+    }
+
+    @Test
+    public void json_readsRowsWithNullGoalsEscapesAndUnknownFields() throws IOException {
+        WeightImporter.ImportStats stats = json("[\n"
+                + "  {\"date\": \"2024-01-01\", \"weight\": 181.5, \"goal\": 170},\n"
+                + "  {\"note\": \"said \\\"hi\\\", } ok\", \"weight\": \"180\", \"date\": \"2024-01-02\", \"goal\": null},\n"
+                + "  {\"date\": \"2024-01-03\", \"weight\": 179}\n"
+                + "]");
+
+        assertEquals(3, stats.getRowsImported());
+        assertEquals(0, stats.getRowsRejected());
+        WeightSeries rows = imported();
+        assertEquals(170.0, rows.getGoal(0), 0);
+        assertEquals(180.0, rows.getWeight(1), 0);
+        assertFalse(rows.hasGoal(1));
+        assertFalse(rows.hasGoal(2));
+    }
+
+    @Test
+    public void json_rejectsOverLongValues() throws IOException {
+        WeightImporter.ImportStats stats = json("[{\"date\": \"2024-01-01" + repeat('0', 100)
+                + "\", \"weight\": 180}, {\"date\": \"2024-01-02\", \"weight\": 1" + repeat('0', 100) + "}]");
+
+        assertEquals(2, stats.getRowsRead());
+        assertEquals(0, stats.getRowsImported());
+        assertEquals(2, stats.getRowsRejected());
+    }
+
+    @Test
+    public void json_malformedInputThrows() {
+        String[] malformed = {
+                "{\"date\": \"2024-01-01\"}",          // not an array
+                "[{\"date\" \"2024-01-01\"}]",         // missing ':'
+                "[{\"date\": \"2024-01-01}]",          // unterminated string
+                "[{\"date\": \"2024-01-01\", \"weight\": 180",  // truncated
+                "[[1, 2]]",                              // not an object
+                "[{date: \"2024-01-01\"}]"              // unquoted name
+        };
+        for (String text : malformed) {
+            try {
+                json(text);
+                fail("accepted " + text);
+            } catch (IOException expected) {
+                // reported to the caller, nothing half-parsed is committed silently
+            }
+        }
+    }
+
+    @Test
+    public void rolledBackChunk_countsItsRowsAsRejected() throws IOException {
+        failChunk = 1;
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            input.append("2024-01-0").append(i).append(",180\n");
+        }
+        List<Long> imported = new ArrayList<>();
+        WeightImporter importer = new WeightImporter(chunk -> {
+            int index = chunks.size();
+            chunks.add(chunk.copy());
+            return index == failChunk ? -1 : chunk.size();
+        }, 1, 3, stats -> imported.add(stats.getRowsImported()));
+
+        WeightImporter.ImportStats stats = importer.importCsv(new StringReader(input.toString()));
+
+        assertEquals(3, chunks.size()); // 3 + 3 + 1
+        assertEquals(7, stats.getRowsRead());
+        assertEquals(4, stats.getRowsImported());
+        assertEquals(3, stats.getRowsRejected());
+        assertEquals(2, stats.getChunksCommitted());
+        assertEquals(1, stats.getChunksFailed());
+        assertEquals(3, imported.size()); // progress after every chunk
+        assertEquals(Long.valueOf(3), imported.get(0));
+        assertEquals(Long.valueOf(3), imported.get(1));
+        assertEquals(Long.valueOf(4), imported.get(2));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.weighttracker.data;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.example.weighttracker.model.WeightSeries;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeightPagerTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantExecutor = new InstantTaskExecutorRule();
+
+    // Runs queued page loads only when asked, so tests control completion order
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final FakeSource source = new FakeSource(1);
+    private final WeightPager pager = new WeightPager(source, queue::add, 4);
+
+    @Test
+    public void pages_appendInKeysetOrderUntilTheEnd() {
+        source.addDays(100, 101, 102, 103, 104, 105, 106, 107, 108, 109);
+
+        pager.loadNextPage();
+        queue.poll().run();
+        assertDays(pager.getItems().getValue(), 109, 108, 107, 106);
+
+        pager.loadNextPage();
+        queue.poll().run();
+        pager.loadNextPage();
+        queue.poll().run();
+        assertDays(pager.getItems().getValue(), 109, 108, 107, 106, 105, 104, 103, 102, 101, 100);
+
+        // The short last page ended the list: no further queries
+        pager.loadNextPage();
+        assertTrue(queue.isEmpty());
+        assertEquals(3, source.queries.size());
+        assertNull(source.queries.get(0));
+        assertEquals(106, source.queries.get(1).getEpochDay());
+        assertEquals(102, source.queries.get(2).getEpochDay());
+    }
+
+    @Test
+    public void sameDayRows_areNeitherSkippedNorRepeatedAcrossPages() {
+        source.addDays(100, 101, 101, 101, 101, 101, 102);
+
+        pager.loadNextPage();
+        queue.poll().run();
+        pager.loadNextPage();
+        queue.poll().run();
+
+        WeightSeries.View items = pager.getItems().getValue();
+        assertDays(items, 102, 101, 101, 101, 101, 101, 100);
+        for (int i = 1; i < items.size(); i++) {
+            if (items.getEpochDay(i) == items.getEpochDay(i - 1)) {
+                assertTrue(items.getId(i) > items.getId(i - 1));
+            }
+        }
+    }
+
+    @Test
+    public void loadNextPage_ignoresCallsWhileALoadIsInFlight() {
+        source.addDays(100, 101, 102, 103, 104, 105);
+
+        pager.loadNextPage();
+        pager.loadNextPage();
+        pager.loadNextPage();
+
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void publishedPages_areUnaffectedByLaterPages() {
+        source.addDays(100, 101, 102, 103, 104, 105, 106, 107);
+        pager.loadNextPage();
+        queue.poll().run();
+        WeightSeries.View first = pager.getItems().getValue();
+
+        pager.loadNextPage();
+        queue.poll().run();
+
+        assertDays(first, 107, 106, 105, 104);
+        assertEquals(8, pager.getItems().getValue().size());
+    }
+
+    @Test
+    public void refresh_reloadsWhatWasLoadedAndDropsStalePages() {
+        source.addDays(100, 101, 102, 103, 104, 105, 106, 107, 108, 109);
+        pager.loadNextPage();
+        queue.poll().run();
+        pager.loadNextPage();
+        queue.poll().run();
+
+        // A page was requested, then the data changed before it ran
+        pager.loadNextPage();
+        Runnable stale = queue.poll();
+        source.addDays(110);
+        pager.refresh();
+        Runnable fresh = queue.poll();
+
+        fresh.run();
+        stale.run(); // finishes last but belongs to the old load
+
+        assertDays(pager.getItems().getValue(), 110, 109, 108, 107, 106, 105, 104, 103);
+        pager.loadNextPage();
+        queue.poll().run();
+        assertDays(pager.getItems().getValue(), 110, 109, 108, 107, 106, 105, 104, 103, 102, 101, 100);
+    }
+
+    private static void assertDays(WeightSeries.View view, int... days) {
+        assertEquals(days.length, view.size());
+        for (int i = 0; i < days.length; i++) {
+            assertEquals("row " + i, days[i], view.getEpochDay(i));
+        }
+    }
+
+    // In-memory stand-in for the database page query: rows ordered by day descending,
+    // then id ascending, and the page after a key starts strictly past it
+    private static final class FakeSource extends WeightPagingSource {
+        private final List<int[]> rows = new ArrayList<>(); // {day, id}
+        private final List<PageKey> queries = new ArrayList<>();
+        private int nextId = 1;
+
+        FakeSource(long userId) {
+            super(null, userId);
+        }
+
+        void addDays(int... days) {
+            for (int day : days) {
+                rows.add(new int[]{day, nextId++});
+            }
+            rows.sort((a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1]));
+        }
+
+        @Override
+        public PageKey loadInto(PageKey key, int pageSize, WeightSeries target) {
+            queries.add(key);
+            int added = 0;
+            for (int[] row : rows) {
+                if (added == pageSize) break;
+                if (key != null && (row[0] > key.getEpochDay()
+                        || (row[0] == key.getEpochDay() && row[1] <= key.getWeightId()))) {
+                    continue;
+                }
+                target.add(row[1], row[0], 150.0, WeightSeries.NO_GOAL);
+                added++;
+            }
+            if (added < pageSize) return null;
+            int last = target.size() - 1;
+            return new PageKey(target.getEpochDay(last), target.getId(last));
+        }
+    }
+}
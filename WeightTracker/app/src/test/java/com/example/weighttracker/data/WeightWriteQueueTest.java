@@ -0,0 +1,93 @@
+package com.example.weighttracker.data;
+
+import com.example.weighttracker.model.WeightEntry;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WeightWriteQueueTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Accepts every write except inserts of negative weights
+    private boolean[] apply(List<WeightWriteQueue.Write> writes) {
+        synchronized (batchSizes) {
+            batchSizes.add(writes.size());
+        }
+        boolean[] applied = new boolean[writes.size()];
+        for (int i = 0; i < writes.size(); i++) {
+            WeightWriteQueue.Write write = writes.get(i);
+            applied[i] = write.isDelete() || write.getEntry().getWeight() > 0;
+        }
+        return applied;
+    }
+
+    private static WeightEntry entry(double weight) {
+        return new WeightEntry(1, "2024-03-01", weight, null);
+    }
+
+    @Test
+    public void writesWithinWindow_areAppliedAsOneBatch() throws Exception {
+        WeightWriteQueue queue = new WeightWriteQueue(this::apply, executor, 200, 64);
+
+        CompletableFuture<Boolean> first = queue.insert(entry(180));
+        CompletableFuture<Boolean> rejected = queue.insert(entry(-1));
+        CompletableFuture<Boolean> delete = queue.delete(42, 1);
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertFalse(rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(delete.get(5, TimeUnit.SECONDS));
+        assertEquals(1, batchSizes.size());
+        assertEquals(3, (int) batchSizes.get(0));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void fullBatch_flushesWithoutWaitingForWindow() throws Exception {
+        WeightWriteQueue queue = new WeightWriteQueue(this::apply, executor, TimeUnit.MINUTES.toMillis(10), 2);
+
+        CompletableFuture<Boolean> first = queue.insert(entry(180));
+        CompletableFuture<Boolean> second = queue.insert(entry(181));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, (int) batchSizes.get(0));
+    }
+
+    @Test
+    public void failedBatch_failsEveryFuture() throws Exception {
+        WeightWriteQueue queue = new WeightWriteQueue(writes -> {
+            throw new IllegalStateException("database closed");
+        }, executor, TimeUnit.MINUTES.toMillis(10), 64);
+
+        CompletableFuture<Boolean> first = queue.insert(entry(180));
+        CompletableFuture<Boolean> second = queue.delete(7, 1);
+        queue.flush();
+
+        for (CompletableFuture<Boolean> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected the write to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.weighttracker.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PeriodStatsTest {
+
+    private static PeriodStats of(int startDay, double... weights) {
+        double sum = 0, sumSq = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+        for (double w : weights) {
+            sum += w;
+            sumSq += w * w;
+            min = Math.min(min, w);
+            max = Math.max(max, w);
+        }
+        return new PeriodStats(PeriodStats.Period.WEEK, startDay, weights.length, sum, sumSq, min, max);
+    }
+
+    @Test
+    public void meanAndVariance_fromRunningSums() {
+        PeriodStats stats = of(0, 180, 182, 184);
+
+        assertEquals(182, stats.getMean(), 1e-9);
+        assertEquals(8.0 / 3, stats.getVariance(), 1e-9);
+        assertEquals(180, stats.getMin(), 0);
+        assertEquals(184, stats.getMax(), 0);
+    }
+
+    @Test
+    public void merge_matchesSinglePeriodOverAllValues() {
+        PeriodStats merged = of(7, 170, 171).merge(of(0, 175, 178, 179));
+        PeriodStats expected = of(0, 170, 171, 175, 178, 179);
+
+        assertEquals(0, merged.getStartDay());
+        assertEquals(expected.getCount(), merged.getCount());
+        assertEquals(expected.getMean(), merged.getMean(), 1e-9);
+        assertEquals(expected.getVariance(), merged.getVariance(), 1e-9);
+        assertEquals(170, merged.getMin(), 0);
+        assertEquals(179, merged.getMax(), 0);
+    }
+
+    @Test
+    public void emptyPeriod_hasNoMean() {
+        PeriodStats empty = new PeriodStats(PeriodStats.Period.MONTH, 0, 0, 0, 0, 0, 0);
+        assertTrue(Double.isNaN(empty.getMean()));
+        assertTrue(Double.isNaN(empty.getVariance()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.weighttracker.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeightSeriesTest {
+
+    @Test
+    public void insertAndRemove_keepColumnsAligned() {
+        WeightSeries series = new WeightSeries(1, 1);
+        series.add(10, 100, 180.0, WeightSeries.NO_GOAL);
+        series.add(12, 102, 178.0, 170.0);
+        series.insert(1, 11, 101, 179.0, 170.0);
+
+        assertEquals(3, series.size());
+        assertEquals(11, series.getId(1));
+        assertEquals(101, series.getEpochDay(1));
+        assertEquals(179.0, series.getWeight(1), 0);
+        assertFalse(series.hasGoal(0));
+        assertTrue(series.hasGoal(2));
+
+        series.remove(0);
+        assertEquals(2, series.size());
+        assertEquals(11, series.getId(0));
+        assertEquals(12, series.getId(1));
+    }
+
+    @Test
+    public void view_isUnaffectedByLaterAppends() {
+        WeightSeries series = new WeightSeries(1, 2);
+        series.add(1, 100, 180.0, WeightSeries.NO_GOAL);
+        WeightSeries.View view = series.view();
+
+        for (int i = 0; i < 100; i++) {
+            series.add(i + 2, 101 + i, 170.0, WeightSeries.NO_GOAL);
+        }
+
+        assertEquals(1, view.size());
+        assertEquals(180.0, view.getWeight(0), 0);
+        assertEquals(101, series.size());
+    }
+
+    @Test
+    public void snapshot_isUnaffectedByLaterSplices() {
+        WeightSeries series = new WeightSeries(1, 8);
+        for (int i = 0; i < 4; i++) {
+            series.add(i, 100 + 2 * i, 180.0 - i, WeightSeries.NO_GOAL);
+        }
+        WeightSeries.View snapshot = series.snapshot();
+
+        series.insert(1, 10, 101, 150.0, WeightSeries.NO_GOAL); // middle
+        series.remove(0);                                        // first
+        series.remove(series.size() - 1);                        // last
+        series.add(11, 110, 140.0, WeightSeries.NO_GOAL);        // into a slot the snapshot saw
+
+        assertEquals(4, snapshot.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, snapshot.getId(i));
+            assertEquals(100 + 2 * i, snapshot.getEpochDay(i));
+            assertEquals(180.0 - i, snapshot.getWeight(i), 0);
+        }
+        assertEquals(4, series.size());
+        assertEquals(10, series.getId(0));
+        assertEquals(1, series.getId(1));
+        assertEquals(2, series.getId(2));
+        assertEquals(11, series.getId(3));
+    }
+
+    @Test
+    public void snapshot_sharesColumnsUntilTheFirstOverlappingWrite() {
+        WeightSeries series = new WeightSeries(1, 8);
+        series.add(1, 100, 180.0, WeightSeries.NO_GOAL);
+        series.add(2, 101, 179.0, WeightSeries.NO_GOAL);
+        int[] days = series.epochDayColumn();
+        series.snapshot();
+
+        series.add(3, 102, 178.0, WeightSeries.NO_GOAL); // past the snapshot: written in place
+        assertSame(days, series.epochDayColumn());
+
+        series.insert(0, 0, 99, 181.0, WeightSeries.NO_GOAL);
+        assertNotSame(days, series.epochDayColumn());
+        int[] own = series.epochDayColumn();
+        series.remove(1); // no snapshot taken since the copy
+        assertSame(own, series.epochDayColumn());
+    }
+
+    @Test
+    public void fromEntries_roundTripsThroughEntryList() {
+        List<WeightEntry> entries = Arrays.asList(
+                new WeightEntry(5, 1, "2024-02-28", 181.5, null),
+                new WeightEntry(6, 1, "2024-02-29", 181.0, 165.0));
+
+        List<WeightEntry> back = WeightSeries.fromEntries(1, entries).view().asEntryList();
+
+        assertEquals(2, back.size());
+        assertEquals("2024-02-29", back.get(1).getDate());
+        assertEquals(6, back.get(1).getId());
+        assertNull(back.get(0).getGoal());
+        assertEquals(165.0, back.get(1).getGoal(), 0);
+    }
+
+    @Test
+    public void subView_offsetsIntoColumns() {
+        WeightSeries series = new WeightSeries(1);
+        for (int i = 0; i < 10; i++) series.add(i, 200 + i, 150 + i, WeightSeries.NO_GOAL);
+
+        WeightSeries.View view = series.view(3, 6);
+
+        assertEquals(3, view.size());
+        assertEquals(203, view.getEpochDay(0));
+        assertArrayEquals(new double[]{153, 154, 155}, view.weights(), 0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightSeries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DownsamplerTest {
+
+    private static WeightSeries.View dailySeries(int days) {
+        WeightSeries series = new WeightSeries(1, days);
+        for (int day = 0; day < days; day++) {
+            series.add(day, day, 180 + 5 * Math.sin(day / 30.0), WeightSeries.NO_GOAL);
+        }
+        return series.view();
+    }
+
+    @Test
+    public void lttb_keepsEndpointsAndReturnsThresholdPoints() {
+        WeightSeries.View series = dailySeries(10_000);
+
+        Downsampler.Points points = Downsampler.downsample(series, 300, Downsampler.Mode.LTTB);
+
+        assertEquals(300, points.size());
+        assertEquals(0, points.getEpochDay(0));
+        assertEquals(9_999, points.getEpochDay(299));
+        for (int i = 1; i < points.size(); i++) {
+            assertTrue(points.getEpochDay(i) > points.getEpochDay(i - 1));
+        }
+    }
+
+    @Test
+    public void lttb_keepsIsolatedSpike() {
+        WeightSeries series = new WeightSeries(1);
+        for (int day = 0; day < 1000; day++) {
+            series.add(day, day, day == 500 ? 230 : 180, WeightSeries.NO_GOAL);
+        }
+
+        Downsampler.Points points = Downsampler.lttb(series.view(), 50);
+
+        boolean found = false;
+        for (int i = 0; i < points.size(); i++) {
+            found |= points.getWeight(i) == 230;
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void minMax_keepsExtremesOfEveryColumn() {
+        WeightSeries.View series = dailySeries(1000);
+
+        Downsampler.Points points = Downsampler.downsample(series, 10, Downsampler.Mode.MIN_MAX);
+
+        assertTrue(points.size() <= 20);
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < series.size(); i++) {
+            min = Math.min(min, series.getWeight(i));
+            max = Math.max(max, series.getWeight(i));
+        }
+        double sampledMin = Double.MAX_VALUE;
+        double sampledMax = -Double.MAX_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            sampledMin = Math.min(sampledMin, points.getWeight(i));
+            sampledMax = Math.max(sampledMax, points.getWeight(i));
+            if (i > 0) assertTrue(points.getEpochDay(i) > points.getEpochDay(i - 1));
+        }
+        assertEquals(min, sampledMin, 0);
+        assertEquals(max, sampledMax, 0);
+    }
+
+    @Test
+    public void shortSeries_isReturnedUnchanged() {
+        WeightSeries.View series = dailySeries(40);
+
+        Downsampler.Points points = Downsampler.downsample(series.subView(5, 25), 100, Downsampler.Mode.LTTB);
+
+        assertEquals(20, points.size());
+        assertEquals(5, points.getEpochDay(0));
+        assertEquals(series.getWeight(24), points.getWeight(19), 0);
+    }
+}
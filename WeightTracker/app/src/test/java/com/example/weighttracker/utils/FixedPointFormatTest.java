@@ -0,0 +1,47 @@
+package com.example.weighttracker.utils;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FixedPointFormatTest {
+
+    private static String format(double value, int decimals) {
+        char[] out = new char[FixedPointFormat.MAX_LENGTH];
+        int length = FixedPointFormat.format(value, decimals, out, 0);
+        return new String(out, 0, length);
+    }
+
+    @Test
+    public void format_writesFixedDecimals() {
+        assertEquals("180.5", format(180.5, 1));
+        assertEquals("0.0", format(0, 1));
+        assertEquals("7.0", format(7, 1));
+        assertEquals("-3.25", format(-3.25, 2));
+        assertEquals("0.0", format(-0.01, 1)); // no "-0.0"
+        assertEquals("200", format(199.6, 0));
+        assertEquals("-", format(Double.NaN, 1));
+    }
+
+    @Test
+    public void format_matchesStringFormatForWeights() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            // values on a 0.01 grid, like entered weights and their differences
+            double value = Math.round(random.nextDouble() * 30_000) / 100.0;
+            assertEquals(String.format(Locale.US, "%.1f", value), format(value, 1));
+        }
+    }
+
+    @Test
+    public void isoDate_formatIntoWritesAtOffset() {
+        char[] out = new char[14];
+        out[0] = '[';
+        IsoDate.formatInto(IsoDate.toEpochDay("2024-02-29"), out, 1);
+        out[11] = ']';
+        assertEquals("[2024-02-29]", new String(out, 0, 12));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightEntry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IsoDateTest {
+
+    @Test
+    public void parseEpochDay_checksCalendarValidity() {
+        assertEquals(IsoDate.toEpochDay(2024, 2, 29), IsoDate.parseEpochDay("2024-02-29"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("2023-02-29"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("1900-02-29"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("2024-04-31"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("2024-13-01"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("2024-1-05"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay("2024/01/05"));
+        assertEquals(IsoDate.INVALID, IsoDate.parseEpochDay((CharSequence) null));
+    }
+
+    @Test
+    public void parseEpochDay_charBufferMatchesString() {
+        char[] buf = "xx2000-03-01yy".toCharArray();
+        assertEquals(IsoDate.parseEpochDay("2000-03-01"), IsoDate.parseEpochDay(buf, 2, 10));
+    }
+
+    @Test
+    public void isValid_rejectsFutureDates() {
+        int today = IsoDate.toEpochDay("2025-06-09");
+        assertTrue(IsoDate.isValid("2025-06-09", today));
+        assertFalse(IsoDate.isValid("2025-06-10", today));
+    }
+
+    @Test
+    public void sortByEpochDay_isStableAndReturnsDays() {
+        List<WeightEntry> entries = new ArrayList<>(Arrays.asList(
+                new WeightEntry(1, 1, "2024-03-02", 180, null),
+                new WeightEntry(2, 1, "2024-03-01", 181, null),
+                new WeightEntry(3, 1, "2024-03-02", 179, null)));
+
+        int[] days = WeightUtils.sortByEpochDay(entries);
+
+        assertEquals(2, entries.get(0).getId());
+        assertEquals(1, entries.get(1).getId());
+        assertEquals(3, entries.get(2).getId());
+        assertEquals(IsoDate.toEpochDay("2024-03-01"), days[0]);
+        assertEquals(days[1], days[2]);
+    }
+}
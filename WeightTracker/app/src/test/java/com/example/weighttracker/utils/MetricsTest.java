@@ -0,0 +1,72 @@
+package com.example.weighttracker.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @After
+    public void tearDown() {
+        Metrics.setSink(null);
+    }
+
+    @Test
+    public void withoutSink_nothingIsTimed() {
+        assertFalse(Metrics.isEnabled());
+        assertEquals(0, Metrics.startTimer());
+        Metrics.increment(Metrics.LOAD_CANCELLED); // no sink: ignored
+    }
+
+    @Test
+    public void inMemorySink_collectsCountersAndTimings() {
+        InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        Metrics.setSink(sink);
+
+        long start = Metrics.startTimer();
+        assertNotEquals(0, start);
+        Metrics.stopTimer(Metrics.DB_ADD_WEIGHT, start);
+        Metrics.stopTimer(Metrics.DB_ADD_WEIGHT, Metrics.startTimer());
+        Metrics.increment(Metrics.LOAD_CANCELLED);
+        Metrics.increment(Metrics.LOAD_CANCELLED, 2);
+        Metrics.record(Metrics.LOAD_ROWS, 1200);
+
+        assertEquals(2, sink.getHistogram(Metrics.DB_ADD_WEIGHT).getCount());
+        assertEquals(3, sink.getCounter(Metrics.LOAD_CANCELLED));
+        assertEquals(1200, sink.getHistogram(Metrics.LOAD_ROWS).getMax());
+        assertNull(sink.getHistogram(Metrics.DB_VALIDATE_USER));
+        assertEquals(0, sink.getCounter(Metrics.DB_VALIDATE_USER));
+
+        sink.reset();
+        assertTrue(sink.getNames().isEmpty());
+    }
+
+    @Test
+    public void histogram_percentilesWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        long p50 = histogram.getPercentile(0.5);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(p50 >= 5000 && p50 <= 5000 * 1.25);
+        assertTrue(p99 >= 9900 && p99 <= 10_000);
+        assertEquals(10_000, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    public void histogram_bucketBoundsContainTheirValues() {
+        long[] samples = {0, 1, 3, 4, 7, 8, 9, 1023, 1024, 123_456_789L, Long.MAX_VALUE};
+        for (long value : samples) {
+            int bucket = Histogram.bucketOf(value);
+            assertTrue(value <= Histogram.upperBound(bucket));
+            assertTrue(bucket == 0 || value > Histogram.upperBound(bucket - 1));
+        }
+    }
+}
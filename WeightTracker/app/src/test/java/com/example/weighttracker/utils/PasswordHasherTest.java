@@ -0,0 +1,34 @@
+package com.example.weighttracker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PasswordHasherTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void costForTarget_doublesPerStep() {
+        // 2 ms at cost 8 -> 4, 8, 16, 32, 64, 128 ms at costs 9..14
+        assertEquals(14, PasswordHasher.costForTarget(2 * MS, 8, 250 * MS));
+        assertEquals(13, PasswordHasher.costForTarget(2 * MS, 8, 100 * MS));
+    }
+
+    @Test
+    public void costForTarget_staysWithinBounds() {
+        assertEquals(PasswordHasher.MIN_COST, PasswordHasher.costForTarget(500 * MS, 8, 250 * MS));
+        assertEquals(PasswordHasher.MAX_COST, PasswordHasher.costForTarget(1, 8, 250 * MS));
+    }
+
+    @Test
+    public void hash_verifiesWithItsOwnCost() {
+        PasswordHasher.setCost(4); // clamped up to MIN_COST
+        assertEquals(PasswordHasher.MIN_COST, PasswordHasher.getCost());
+        String hash = PasswordHasher.hash("secret#1");
+        assertTrue(hash.startsWith("$2a$12$"));
+        assertTrue(PasswordHasher.check("secret#1", hash));
+        assertFalse(PasswordHasher.check("secret#2", hash));
+        PasswordHasher.setCost(PasswordHasher.DEFAULT_COST);
+    }
+}
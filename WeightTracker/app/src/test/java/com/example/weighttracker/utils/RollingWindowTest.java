@@ -0,0 +1,87 @@
+package com.example.weighttracker.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RollingWindowTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void movingAverage_matchesNaiveWindowSum() {
+        double[] values = randomSeries(500, 1);
+        int window = 30;
+
+        double[] averages = RollingWindow.movingAverage(values, window);
+
+        assertEquals(values.length - window + 1, averages.length);
+        for (int i = 0; i < averages.length; i++) {
+            double sum = 0;
+            for (int j = 0; j < window; j++) sum += values[i + j];
+            assertEquals(sum / window, averages[i], EPS);
+        }
+    }
+
+    @Test
+    public void movingAverage_tooFewValues_isEmpty() {
+        assertEquals(0, RollingWindow.movingAverage(new double[]{150, 151}, 7).length);
+    }
+
+    @Test
+    public void statistics_matchNaiveWindow() {
+        double[] values = randomSeries(2000, 2);
+        int window = 90;
+        RollingWindow rolling = new RollingWindow(window);
+
+        for (int i = 0; i < values.length; i++) {
+            rolling.add(values[i]);
+            int from = Math.max(0, i - window + 1);
+            int n = i - from + 1;
+
+            double sum = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (int j = from; j <= i; j++) {
+                sum += values[j];
+                min = Math.min(min, values[j]);
+                max = Math.max(max, values[j]);
+            }
+            double mean = sum / n;
+            double sq = 0;
+            for (int j = from; j <= i; j++) sq += (values[j] - mean) * (values[j] - mean);
+
+            assertEquals(n, rolling.count());
+            assertEquals(mean, rolling.mean(), EPS);
+            assertEquals(sq / n, rolling.variance(), 1e-6);
+            assertEquals(min, rolling.min(), 0);
+            assertEquals(max, rolling.max(), 0);
+        }
+    }
+
+    @Test
+    public void clear_resetsWindow() {
+        RollingWindow rolling = new RollingWindow(3);
+        rolling.add(180);
+        rolling.add(170);
+        rolling.clear();
+
+        assertEquals(0, rolling.count());
+        assertTrue(Double.isNaN(rolling.mean()));
+
+        rolling.add(160);
+        assertEquals(160, rolling.min(), 0);
+        assertEquals(160, rolling.max(), 0);
+    }
+
+    private static double[] randomSeries(int n, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[n];
+        double weight = 180;
+        for (int i = 0; i < n; i++) {
+            weight += random.nextGaussian();
+            values[i] = weight;
+        }
+        return values;
+    }
+}
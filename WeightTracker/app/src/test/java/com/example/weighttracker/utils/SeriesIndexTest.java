@@ -0,0 +1,86 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SeriesIndexTest {
+
+    // Days 10, 12, 12, 15, 20
+    private static SeriesIndex sample() {
+        WeightSeries series = new WeightSeries(1);
+        int[] days = {10, 12, 12, 15, 20};
+        for (int i = 0; i < days.length; i++) {
+            series.add(i, days[i], 180 - i, WeightSeries.NO_GOAL);
+        }
+        return new SeriesIndex(series.view());
+    }
+
+    @Test
+    public void floorAndCeiling_findNearestRows() {
+        SeriesIndex index = sample();
+
+        assertEquals(-1, index.floorIndex(9));
+        assertEquals(0, index.floorIndex(10));
+        assertEquals(2, index.floorIndex(12)); // last row of the day
+        assertEquals(2, index.floorIndex(14));
+        assertEquals(4, index.floorIndex(99));
+
+        assertEquals(0, index.ceilingIndex(0));
+        assertEquals(1, index.ceilingIndex(11)); // first row of the day
+        assertEquals(3, index.ceilingIndex(13));
+        assertEquals(-1, index.ceilingIndex(21));
+    }
+
+    @Test
+    public void floor_acceptsIsoDates() {
+        WeightSeries series = new WeightSeries(1);
+        series.add(7, IsoDate.toEpochDay("2024-03-01"), 181.0, WeightSeries.NO_GOAL);
+        series.add(8, IsoDate.toEpochDay("2024-03-05"), 180.0, WeightSeries.NO_GOAL);
+        SeriesIndex index = new SeriesIndex(series.view());
+
+        WeightEntry entry = index.floor("2024-03-04");
+        assertEquals("2024-03-01", entry.getDate());
+        assertEquals(8, index.ceiling("2024-03-02").getId());
+        assertNull(index.floor("2024-02-29"));
+    }
+
+    @Test
+    public void range_isHalfOpenZeroCopySubView() {
+        SeriesIndex index = sample();
+
+        WeightSeries.View range = index.range(12, 20);
+        assertEquals(3, range.size());
+        assertEquals(1, range.getId(0));
+        assertEquals(3, range.getId(2));
+
+        WeightSeries.View nested = range.subView(1, 3);
+        assertEquals(2, nested.getId(0));
+        assertEquals(15, nested.getEpochDay(1));
+
+        assertEquals(0, index.range(16, 20).size());
+        assertEquals(0, index.range(20, 10).size());
+    }
+
+    @Test
+    public void interpolation_matchesBinarySearch() {
+        Random random = new Random(3);
+        WeightSeries series = new WeightSeries(1);
+        int day = 18000;
+        for (int i = 0; i < 2000; i++) {
+            day += i % 50 == 0 ? random.nextInt(30) : random.nextInt(3); // mostly daily, some gaps
+            series.add(i, day, 150, WeightSeries.NO_GOAL);
+        }
+        SeriesIndex index = new SeriesIndex(series.view());
+
+        for (int key = 17990; key <= day + 10; key++) {
+            assertEquals(index.floorIndex(key), index.interpolationFloorIndex(key));
+            assertEquals(index.ceilingIndex(key), index.interpolationCeilingIndex(key));
+        }
+    }
+}
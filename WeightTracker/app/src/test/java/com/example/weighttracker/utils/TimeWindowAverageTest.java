@@ -0,0 +1,109 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.utils.TimeWindowAverage.GapMode;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimeWindowAverageTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void isoDate_roundTripsEpochDays() {
+        assertEquals(0, IsoDate.toEpochDay("1970-01-01"));
+        assertEquals(11016, IsoDate.toEpochDay("2000-02-29"));
+        assertEquals(-1, IsoDate.toEpochDay("1969-12-31"));
+        for (int day = -1000; day < 40000; day += 37) {
+            assertEquals(day, IsoDate.toEpochDay(IsoDate.format(day)));
+        }
+    }
+
+    @Test
+    public void skip_averagesOnlyEntriesInsideCalendarWindow() {
+        int[] days = {0, 1, 10, 11, 12};
+        double[] values = {100, 102, 110, 112, 114};
+
+        double[] averages = TimeWindowAverage.calculate(days, values, days.length, 7, GapMode.SKIP);
+
+        assertEquals(100, averages[0], EPS);
+        assertEquals(101, averages[1], EPS);
+        assertEquals(110, averages[2], EPS); // days 0 and 1 are outside (4, 10]
+        assertEquals(111, averages[3], EPS);
+        assertEquals(112, averages[4], EPS);
+    }
+
+    @Test
+    public void allModes_matchNaiveDailyExpansion() {
+        Random random = new Random(7);
+        int n = 400;
+        int[] days = new int[n];
+        double[] values = new double[n];
+        int day = 18000;
+        for (int i = 0; i < n; i++) {
+            day += random.nextInt(6); // includes same-day duplicates and gaps
+            days[i] = day;
+            values[i] = 150 + random.nextGaussian() * 5;
+        }
+
+        for (GapMode mode : GapMode.values()) {
+            for (int window : new int[]{1, 7, 30, 90}) {
+                double[] fast = TimeWindowAverage.calculate(days, values, n, window, mode);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(mode + " window " + window + " at " + i,
+                            naive(days, values, i, window, mode), fast[i], 1e-7);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void calculateRange_matchesFullPass() {
+        int[] days = {0, 2, 3, 9, 15, 16, 30, 31, 32, 40};
+        double[] values = {180, 179, 178, 176, 175, 174, 172, 171, 171, 170};
+
+        for (GapMode mode : GapMode.values()) {
+            double[] full = TimeWindowAverage.calculate(days, values, days.length, 10, mode);
+            double[] slice = new double[days.length];
+            TimeWindowAverage.calculateRange(days, values, days.length, 10, mode, slice, 4, 8);
+            for (int i = 4; i < 8; i++) {
+                assertEquals(full[i], slice[i], EPS);
+            }
+        }
+    }
+
+    // Reference: expand every calendar day up to entry i and average the window
+    private static double naive(int[] days, double[] values, int i, int window, GapMode mode) {
+        int end = days[i];
+        int start = Math.max(days[0], end - window + 1);
+        if (mode == GapMode.SKIP) {
+            double sum = 0;
+            int count = 0;
+            for (int k = 0; k <= i; k++) {
+                if (days[k] >= start) {
+                    sum += values[k];
+                    count++;
+                }
+            }
+            return sum / count;
+        }
+
+        double sum = 0;
+        for (int d = start; d <= end; d++) {
+            // last entry at or before d, limited to entries up to i
+            int k = i;
+            while (days[k] > d) k--;
+            if (days[k] == d || mode == GapMode.CARRY_FORWARD) {
+                sum += values[k];
+            } else {
+                int next = k + 1;
+                double slope = (values[next] - values[k]) / (days[next] - days[k]);
+                sum += values[k] + slope * (d - days[k]);
+            }
+        }
+        return sum / (end - start + 1);
+    }
+}
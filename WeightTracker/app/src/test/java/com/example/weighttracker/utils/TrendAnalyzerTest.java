@@ -0,0 +1,113 @@
+package com.example.weighttracker.utils;
+
+import com.example.weighttracker.model.WeightSeries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrendAnalyzerTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    public void ewma_decaysByHalfLifeInDays() {
+        TrendAnalyzer trend = new TrendAnalyzer(7, 28);
+        trend.add(100, 200, WeightSeries.NO_GOAL);
+        trend.add(107, 180, WeightSeries.NO_GOAL); // one half-life later
+
+        assertEquals(190, trend.getEwma(), EPS);
+    }
+
+    @Test
+    public void slope_fitsTrailingWindowOnly() {
+        TrendAnalyzer trend = new TrendAnalyzer(7, 10);
+        // rising for 20 days, then falling 0.5 lb/day for 10 days
+        for (int day = 0; day < 20; day++) trend.add(day, 150 + day, WeightSeries.NO_GOAL);
+        for (int day = 20; day < 30; day++) trend.add(day, 169 - 0.5 * (day - 19), WeightSeries.NO_GOAL);
+
+        assertEquals(-0.5, trend.getSlope(), EPS);
+        assertEquals(164, trend.fittedValue(29), EPS);
+    }
+
+    @Test
+    public void goalEta_projectsFittedLineToGoal() {
+        TrendAnalyzer trend = new TrendAnalyzer(7, 28);
+        for (int day = 0; day <= 14; day++) trend.add(day, 200 - 0.25 * day, 190); // 196.5 on day 14
+
+        assertEquals(14 + 26, trend.getGoalEtaDay()); // 6.5 lb at 0.25 lb/day
+
+        trend.add(15, 189, 190);
+        assertTrue(trend.snapshot().hasGoalEta());
+
+        TrendAnalyzer rising = new TrendAnalyzer(7, 28);
+        for (int day = 0; day < 10; day++) rising.add(day, 180 + day, 170);
+        assertEquals(TrendAnalyzer.NO_ETA, rising.getGoalEtaDay());
+    }
+
+    @Test
+    public void rebuild_matchesIncrementalFeed() {
+        WeightSeries series = new WeightSeries(1);
+        TrendAnalyzer incremental = new TrendAnalyzer(5, 14);
+        for (int i = 0; i < 60; i++) {
+            int day = i * 2 + (i % 3);
+            double weight = 190 - i * 0.3 + (i % 4);
+            series.add(i, day, weight, 175);
+            incremental.add(day, weight, 175);
+        }
+        TrendAnalyzer rebuilt = new TrendAnalyzer(5, 14);
+        rebuilt.rebuild(series.view());
+
+        assertEquals(incremental.getEwma(), rebuilt.getEwma(), EPS);
+        assertEquals(incremental.getSlope(), rebuilt.getSlope(), 1e-6);
+        assertEquals(incremental.getGoalEtaDay(), rebuilt.getGoalEtaDay());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_rejectsOutOfOrderEntries() {
+        TrendAnalyzer trend = new TrendAnalyzer(7, 28);
+        trend.add(10, 180, WeightSeries.NO_GOAL);
+        trend.add(9, 181, WeightSeries.NO_GOAL);
+    }
+
+    @Test
+    public void sameDayReadings_foldIntoTheDaysMean() {
+        TrendAnalyzer folded = new TrendAnalyzer(7, 28);
+        folded.add(100, 200, WeightSeries.NO_GOAL);
+        folded.add(100, 196, WeightSeries.NO_GOAL);
+        folded.add(107, 180, WeightSeries.NO_GOAL);
+        folded.add(107, 190, WeightSeries.NO_GOAL);
+        folded.add(108, 184, 170);
+
+        TrendAnalyzer daily = new TrendAnalyzer(7, 28);
+        daily.add(100, 198, WeightSeries.NO_GOAL);
+        daily.add(107, 185, WeightSeries.NO_GOAL);
+        daily.add(108, 184, 170);
+
+        assertEquals(daily.getEwma(), folded.getEwma(), EPS);
+        assertEquals(daily.getSlope(), folded.getSlope(), EPS);
+        assertEquals(daily.getGoalEtaDay(), folded.getGoalEtaDay());
+        assertEquals(5, folded.getEntryCount());
+
+        // The later reading of a day counts, rather than being dropped
+        TrendAnalyzer second = new TrendAnalyzer(7, 28);
+        second.add(100, 200, WeightSeries.NO_GOAL);
+        second.add(107, 180, WeightSeries.NO_GOAL);
+        assertEquals(190, second.getEwma(), EPS);
+        second.add(107, 190, WeightSeries.NO_GOAL);
+        assertEquals(192.5, second.getEwma(), EPS);
+    }
+
+    @Test
+    public void longHistory_matchesAFreshFitOfTheWindow() {
+        // Decades of history: x stays relative to the window, so no precision is lost
+        TrendAnalyzer trend = new TrendAnalyzer(7, 28);
+        for (int day = 0; day < 20_000; day++) trend.add(day, 180 + 10 * Math.sin(day / 50.0), WeightSeries.NO_GOAL);
+
+        TrendAnalyzer window = new TrendAnalyzer(7, 28);
+        for (int day = 20_000 - 28; day < 20_000; day++) window.add(day, 180 + 10 * Math.sin(day / 50.0), WeightSeries.NO_GOAL);
+
+        assertEquals(window.getSlope(), trend.getSlope(), 1e-9);
+        assertEquals(window.fittedValue(19_999), trend.fittedValue(19_999), 1e-9);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.weighttracker.benchmark;
+
+import com.example.weighttracker.model.WeightEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The moving average as WeightRepository computed it before RollingWindow: every
+// position re-sums its whole window, O(n*k), boxing each result. Kept only as the
+// baseline the O(n) version is measured against.
+final class LegacyMovingAverage {
+
+    private LegacyMovingAverage() {}
+
+    static List<Double> calculate(List<WeightEntry> entries, int days) {
+        List<Double> averages = new ArrayList<>();
+        if (entries.size() < days) {
+            return averages;
+        }
+        for (int i = days - 1; i < entries.size(); i++) {
+            double sum = 0;
+            for (int j = 0; j < days; j++) {
+                sum += entries.get(i - j).getWeight();
+            }
+            averages.add(sum / days);
+        }
+        return averages;
+    }
+}
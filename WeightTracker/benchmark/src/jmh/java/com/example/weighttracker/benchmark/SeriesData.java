@@ -0,0 +1,52 @@
+package com.example.weighttracker.benchmark;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.utils.IsoDate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic weight histories for the benchmarks. Entries are spread over at most
+// MAX_SPAN_DAYS days from 1970-01-01 (so every date is valid and in the past);
+// larger series log several weights per day.
+final class SeriesData {
+
+    static final int MAX_SPAN_DAYS = 20_000;
+    private static final long SEED = 42;
+
+    private SeriesData() {}
+
+    // Date-sorted entries with a random-walk weight around 180 lb
+    static List<WeightEntry> sortedEntries(int size) {
+        Random random = new Random(SEED);
+        int span = Math.min(size, MAX_SPAN_DAYS);
+        List<WeightEntry> entries = new ArrayList<>(size);
+        double weight = 180;
+        for (int i = 0; i < size; i++) {
+            int day = (int) ((long) i * span / size);
+            weight = Math.max(60, Math.min(400, weight + random.nextGaussian() * 0.5));
+            entries.add(new WeightEntry(i, 1, IsoDate.format(day), weight, null));
+        }
+        return entries;
+    }
+
+    static List<WeightEntry> shuffled(List<WeightEntry> entries) {
+        List<WeightEntry> copy = new ArrayList<>(entries);
+        Collections.shuffle(copy, new Random(SEED));
+        return copy;
+    }
+
+    // Dates to look up: mostly present, one in eight absent (far in the future)
+    static String[] lookupDates(List<WeightEntry> sortedEntries, int count) {
+        Random random = new Random(SEED);
+        String[] dates = new String[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = i % 8 == 7
+                    ? "2999-01-01"
+                    : sortedEntries.get(random.nextInt(sortedEntries.size())).getDate();
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.weighttracker.benchmark;
+
+import com.example.weighttracker.model.WeightEntry;
+import com.example.weighttracker.model.WeightSeries;
+import com.example.weighttracker.utils.RollingWindow;
+import com.example.weighttracker.utils.WeightUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Baseline throughput (ops/s) and, with the gc profiler, allocation per operation
+// (gc.alloc.rate.norm) for the date sort, date lookup and moving averages.
+// Each @Param size is one synthetic history of that many entries. Every benchmark
+// calls the app's own entry point; legacyMovingAverage is the old O(n*k) algorithm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WeightUtilsBenchmark {
+
+    private static final int LOOKUPS = 1024; // power of two, cycled through by mask
+
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<WeightEntry> sorted;
+    private List<WeightEntry> shuffled;
+    private WeightSeries.View series;
+    private double[] weights;
+    private String[] lookupDates;
+    private int lookup;
+
+    @Setup
+    public void setUp() {
+        sorted = SeriesData.sortedEntries(size);
+        shuffled = SeriesData.shuffled(sorted);
+        series = WeightSeries.fromEntries(1, sorted).view();
+        weights = WeightUtils.toWeightArray(sorted);
+        lookupDates = SeriesData.lookupDates(sorted, LOOKUPS);
+    }
+
+    // Includes copying the shuffled list, since sorting works in place;
+    // copyShuffled below measures that copy alone
+    @Benchmark
+    public List<WeightEntry> sortEntriesByDate() {
+        List<WeightEntry> entries = new ArrayList<>(shuffled);
+        WeightUtils.sortEntriesByDate(entries);
+        return entries;
+    }
+
+    @Benchmark
+    public List<WeightEntry> copyShuffled() {
+        return new ArrayList<>(shuffled);
+    }
+
+    @Benchmark
+    public WeightEntry findEntryByDate() {
+        String date = lookupDates[lookup++ & (LOOKUPS - 1)];
+        return WeightUtils.findEntryByDate(sorted, date);
+    }
+
+    @Benchmark
+    public int findIndexByDate_series() {
+        String date = lookupDates[lookup++ & (LOOKUPS - 1)];
+        return WeightUtils.findIndexByDate(series, date);
+    }
+
+    @Benchmark
+    public double[] calculate7DayMovingAverage() {
+        return WeightUtils.calculate7DayMovingAverage(sorted);
+    }
+
+    // WeightRepository.calculateMovingAverage delegates to this, boxing included
+    @Benchmark
+    public List<Double> repositoryCalculateMovingAverage() {
+        return WeightUtils.calculateMovingAverageList(sorted, 7);
+    }
+
+    // The O(n*k) re-summing version the repository used before, as the baseline
+    @Benchmark
+    public List<Double> legacyMovingAverage() {
+        return LegacyMovingAverage.calculate(sorted, 7);
+    }
+
+    // RollingWindow alone, on weights already in a primitive array
+    @Benchmark
+    public double[] rollingWindowMovingAverage() {
+        return RollingWindow.movingAverage(weights, 7);
+    }
+
+    @Benchmark
+    public double[] calculateMovingAverage_series() {
+        return WeightUtils.calculateMovingAverage(series, 7);
+    }
+}